@@ -0,0 +1,164 @@
+package setvisualizer;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// JMH benchmarks for every stage of a calculation on its own: parsing, the four
+// operations, region building for 2, 3 and N sets, label layout and rendering
+// into an offscreen image. Allocation per operation comes from the GC profiler.
+//
+// Usage: mvn -Pjmh package && java -jar target/benchmarks.jar -prof gc [benchmark-regex]
+//   -p size=1000,10000,100000,1000000   elements per set (10000000 works with a big heap)
+//   -p overlap=0.1,0.5,0.9              chance an element is drawn from the shared pool
+//   -p kind=string,numeric,sorted       element domain (sorted = strings in ascending order)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Measurement(iterations = 5, time = 500, timeUnit = TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+@State(Scope.Benchmark)
+public class SetBenchmarks {
+    private static final int MANY_SETS = 8;
+
+    @Param({"1000", "10000", "100000", "1000000"})
+    public int size;
+
+    @Param({"0.1", "0.5", "0.9"})
+    public double overlap;
+
+    @Param({"string", "numeric", "sorted"})
+    public String kind;
+
+    private List<String> texts;
+    private List<Set<String>> sets;
+    private RegionIndex index;
+    private RegionIndex manyIndex;
+    private VennRenderer renderer;
+    private VennRenderer.Diagram diagram;
+    private VennRenderer.Diagram manyDiagram;
+    private BufferedImage image;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        texts = generateTexts(MANY_SETS, size, overlap, kind.equals("numeric"), new Random(size));
+        if (kind.equals("sorted")) {
+            texts.replaceAll(SetBenchmarks::sortTokens);
+        }
+        sets = new ArrayList<>();
+        for (String text : texts) {
+            sets.add(SetParser.parseText(text));
+        }
+        index = new RegionIndex(sets.subList(0, 3));
+        manyIndex = new RegionIndex(sets);
+
+        // Venn diagram for 3 sets, UpSet matrix for many
+        renderer = new VennRenderer();
+        diagram = layoutDiagram(index);
+        manyDiagram = layoutDiagram(manyIndex);
+        image = new BufferedImage(1000, 300, BufferedImage.TYPE_INT_RGB);
+    }
+
+    @Benchmark
+    public Set<String> parse() {
+        return SetParser.parseText(texts.get(0));
+    }
+
+    @Benchmark
+    public RegionIndex regions2() {
+        return new RegionIndex(sets.subList(0, 2));
+    }
+
+    @Benchmark
+    public RegionIndex regions3() {
+        return new RegionIndex(sets.subList(0, 3));
+    }
+
+    @Benchmark
+    public RegionIndex regionsMany() {
+        return new RegionIndex(sets);
+    }
+
+    @Benchmark
+    public Set<String> union() {
+        return index.result("Union");
+    }
+
+    @Benchmark
+    public Set<String> intersection() {
+        return index.result("Intersection");
+    }
+
+    @Benchmark
+    public Set<String> difference() {
+        return index.result("Difference");
+    }
+
+    @Benchmark
+    public Set<String> symmetricDifference() {
+        return index.result("Symmetric Difference");
+    }
+
+    @Benchmark
+    public VennRenderer.Diagram labelLayout() {
+        return layoutDiagram(index);
+    }
+
+    @Benchmark
+    public BufferedImage render3() {
+        return render(diagram);
+    }
+
+    @Benchmark
+    public BufferedImage renderMany() {
+        return render(manyDiagram);
+    }
+
+    private BufferedImage render(VennRenderer.Diagram rendered) {
+        Graphics2D g = image.createGraphics();
+        renderer.draw(g, image.getWidth(), image.getHeight(), rendered.getNumSets(), rendered, new AffineTransform());
+        g.dispose();
+        return image;
+    }
+
+    private static VennRenderer.Diagram layoutDiagram(RegionIndex index) {
+        Map<Integer, Double> sizes = new HashMap<>();
+        Map<Integer, List<String>> labels = new HashMap<>();
+        for (int mask : index.getRegionMasks()) {
+            sizes.put(mask, (double) index.getRegionSize(mask));
+            if (index.getNumSets() <= 3) {
+                labels.put(mask, VennRenderer.layoutRegionLabel(index.getRegion(mask)));
+            }
+        }
+        return new VennRenderer.Diagram(index.getNumSets(), sizes, labels, false);
+    }
+
+    // Comma-separated sets of `size` draws each. A draw comes from a pool shared by
+    // all sets with probability `overlap`, otherwise from a range private to the set.
+    static List<String> generateTexts(int numSets, int size, double overlap, boolean numeric, Random random) {
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < numSets; i++) {
+            StringBuilder sb = new StringBuilder(size * 10);
+            for (int k = 0; k < size; k++) {
+                long id = random.nextDouble() < overlap
+                        ? random.nextInt(size)
+                        : (long) (i + 1) * size * 4 + random.nextInt(size * 2);
+                if (!numeric) {
+                    sb.append("id");
+                }
+                sb.append(id).append(',');
+            }
+            texts.add(sb.toString());
+        }
+        return texts;
+    }
+
+    private static String sortTokens(String text) {
+        String[] tokens = text.split(",");
+        Arrays.sort(tokens);
+        return String.join(",", tokens);
+    }
+}
@@ -0,0 +1,173 @@
+package setvisualizer;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+// HyperLogLog sketch: estimates the number of distinct elements seen in a fixed
+// 2^p bytes, whatever the input size. Sketches of different sets merge into the
+// sketch of their union, which is what the approximate region estimates build on.
+// Elements are hashed by their text, so "42" from a text field and 42 from a
+// numeric set land in the same register.
+public class HyperLogLog {
+    public static final int DEFAULT_PRECISION = 14;
+
+    private static final double[] INVERSE_POWERS = new double[66];
+
+    static {
+        for (int i = 0; i < INVERSE_POWERS.length; i++) {
+            INVERSE_POWERS[i] = Math.scalb(1.0, -i);
+        }
+    }
+
+    private final int precision;
+    private final byte[] registers;
+
+    public HyperLogLog() {
+        this(DEFAULT_PRECISION);
+    }
+
+    public HyperLogLog(int precision) {
+        if (precision < 4 || precision > 18) {
+            throw new IllegalArgumentException("Precision must be between 4 and 18");
+        }
+        this.precision = precision;
+        this.registers = new byte[1 << precision];
+    }
+
+    public int getPrecision() {
+        return precision;
+    }
+
+    public int getRegisterCount() {
+        return registers.length;
+    }
+
+    // Relative standard error of one estimate
+    public double standardError() {
+        return 1.04 / Math.sqrt(registers.length);
+    }
+
+    public void add(CharSequence text, int start, int end) {
+        addHash(hash(text, start, end));
+    }
+
+    public void add(String element) {
+        add(element, 0, element.length());
+    }
+
+    public void addAll(Set<String> set) {
+        for (String element : set) {
+            add(element);
+        }
+    }
+
+    // Adds every element of the text, split and trimmed the same way SetParser does it
+    public void addTokens(CharSequence text) {
+        int length = text.length();
+        int start = 0;
+        int tokens = 0;
+        for (int i = 0; i <= length; i++) {
+            if (i == length || SetParser.isSeparator(text.charAt(i))) {
+                int from = start;
+                int to = i;
+                while (from < to && text.charAt(from) <= ' ') {
+                    from++;
+                }
+                while (to > from && text.charAt(to - 1) <= ' ') {
+                    to--;
+                }
+                if (from < to) {
+                    add(text, from, to);
+                }
+                start = i + 1;
+                if ((++tokens & 0xFFFF) == 0 && Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException();
+                }
+            }
+        }
+    }
+
+    private void addHash(long hash) {
+        int index = (int) (hash >>> (64 - precision));
+        // Rank of the first one bit in the remaining bits; a sentinel bit caps it
+        long rest = (hash << precision) | (1L << (precision - 1));
+        byte rank = (byte) (Long.numberOfLeadingZeros(rest) + 1);
+        if (registers[index] < rank) {
+            registers[index] = rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        checkCompatible(other);
+        for (int i = 0; i < registers.length; i++) {
+            if (registers[i] < other.registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    public double estimate() {
+        return estimate(registers);
+    }
+
+    // Estimate of the union of `left` and `right` sketches, written into `union`
+    // (the three may not alias). Saves a separate merge pass when walking many unions.
+    static double mergeAndEstimate(byte[] left, byte[] right, byte[] union) {
+        double sum = 0;
+        int zeros = 0;
+        for (int i = 0; i < union.length; i++) {
+            byte rank = left[i] >= right[i] ? left[i] : right[i];
+            union[i] = rank;
+            sum += INVERSE_POWERS[rank];
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        return estimate(union.length, sum, zeros);
+    }
+
+    private static double estimate(byte[] registers) {
+        double sum = 0;
+        int zeros = 0;
+        for (byte rank : registers) {
+            sum += INVERSE_POWERS[rank];
+            if (rank == 0) {
+                zeros++;
+            }
+        }
+        return estimate(registers.length, sum, zeros);
+    }
+
+    private static double estimate(int m, double sum, int zeros) {
+        double alpha = m >= 128 ? 0.7213 / (1 + 1.079 / m) : m == 64 ? 0.709 : m == 32 ? 0.697 : 0.673;
+        double raw = alpha * m * m / sum;
+        // Linear counting is more accurate while many registers are still empty
+        if (raw <= 2.5 * m && zeros > 0) {
+            return m * Math.log((double) m / zeros);
+        }
+        return raw;
+    }
+
+    byte[] registers() {
+        return registers;
+    }
+
+    void checkCompatible(HyperLogLog other) {
+        if (other.precision != precision) {
+            throw new IllegalArgumentException("Sketches have different precisions");
+        }
+    }
+
+    // 64-bit hash of the characters (FNV-1a, then a finalizer to spread the bits)
+    static long hash(CharSequence text, int start, int end) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = start; i < end; i++) {
+            h = (h ^ text.charAt(i)) * 0x100000001B3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+}
@@ -0,0 +1,184 @@
+package setvisualizer;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.*;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Collectors;
+
+// Loads a set from a newline- or comma-delimited UTF-8 file.
+// The file is split into chunks on separator boundaries; every chunk is
+// memory-mapped and parsed on the common ForkJoinPool, and the per-chunk sets
+// are merged at the end. Nothing goes through Swing text components.
+public class MappedSetLoader {
+    static final long CHUNK_SIZE = 16L << 20;
+
+    // Outcome of one load, with the numbers shown in the result panel. Holds either
+    // the set or, for an approximate load, only its sketch.
+    public static class LoadResult {
+        public final Set<String> set;
+        public final HyperLogLog sketch;
+        public final long bytes;
+        public final long nanos;
+
+        LoadResult(Set<String> set, HyperLogLog sketch, long bytes, long nanos) {
+            this.set = set;
+            this.sketch = sketch;
+            this.bytes = bytes;
+            this.nanos = nanos;
+        }
+
+        public double megabytesPerSecond() {
+            return nanos == 0 ? 0 : (bytes / 1_000_000.0) / (nanos / 1_000_000_000.0);
+        }
+    }
+
+    public static LoadResult load(Path file) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> chunks = splitIntoChunks(channel, size);
+
+            List<Set<String>> parts;
+            try {
+                parts = chunks.parallelStream()
+                        .map(chunk -> parseChunk(channel, chunk[0], chunk[1]))
+                        .collect(Collectors.toList());
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            return new LoadResult(merge(parts), null, size, System.nanoTime() - started);
+        }
+    }
+
+    // Same chunked pass as load(), but every chunk only feeds a HyperLogLog sketch,
+    // so memory stays fixed however many elements the file has
+    public static LoadResult sketch(Path file) throws IOException {
+        long started = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            List<long[]> chunks = splitIntoChunks(channel, size);
+
+            HyperLogLog sketch;
+            try {
+                sketch = chunks.parallelStream()
+                        .map(chunk -> {
+                            HyperLogLog part = new HyperLogLog();
+                            part.addTokens(decodeChunk(channel, chunk[0], chunk[1]));
+                            return part;
+                        })
+                        .reduce((left, right) -> {
+                            left.merge(right);
+                            return left;
+                        })
+                        .orElseGet(HyperLogLog::new);
+            } catch (UncheckedIOException ex) {
+                throw ex.getCause();
+            }
+
+            return new LoadResult(null, sketch, size, System.nanoTime() - started);
+        }
+    }
+
+    // [start, end) ranges of roughly CHUNK_SIZE bytes, each ending right after a separator
+    private static List<long[]> splitIntoChunks(FileChannel channel, long size) throws IOException {
+        List<long[]> chunks = new ArrayList<>();
+        long start = skipByteOrderMark(channel, size);
+        while (start < size) {
+            long end = Math.min(size, start + CHUNK_SIZE);
+            if (end < size) {
+                end = nextSeparator(channel, end, size);
+            }
+            chunks.add(new long[] {start, end});
+            start = end;
+        }
+        return chunks;
+    }
+
+    private static long skipByteOrderMark(FileChannel channel, long size) throws IOException {
+        if (size < 3) {
+            return 0;
+        }
+        ByteBuffer head = ByteBuffer.allocate(3);
+        channel.read(head, 0);
+        return head.get(0) == (byte) 0xEF && head.get(1) == (byte) 0xBB && head.get(2) == (byte) 0xBF ? 3 : 0;
+    }
+
+    // Position just past the first separator at or after `from` (separators are
+    // ASCII, so this never splits a UTF-8 sequence)
+    private static long nextSeparator(FileChannel channel, long from, long size) throws IOException {
+        ByteBuffer window = ByteBuffer.allocate(4096);
+        long position = from;
+        while (position < size) {
+            window.clear();
+            int read = channel.read(window, position);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                byte b = window.get(i);
+                if (b == ',' || b == '\n' || b == '\r') {
+                    return position + i + 1;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static Set<String> parseChunk(FileChannel channel, long start, long end) {
+        SetParser parser = new SetParser();
+        parser.parse(decodeChunk(channel, start, end));
+        return parser.toSet();
+    }
+
+    private static CharBuffer decodeChunk(FileChannel channel, long start, long end) {
+        try {
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, start, end - start);
+            return StandardCharsets.UTF_8.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE)
+                    .decode(mapped);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private static Set<String> merge(List<Set<String>> parts) {
+        if (parts.isEmpty()) {
+            return new HashSet<>();
+        }
+        if (parts.stream().allMatch(part -> part instanceof NumericSet)) {
+            NumericSet merged = new NumericSet();
+            for (Set<String> part : parts) {
+                merged.orInPlace((NumericSet) part);
+            }
+            return merged;
+        }
+        // Chunks of a sorted file are sorted and follow each other, so the merge just
+        // copies them one after the other (and drops duplicates across chunk boundaries)
+        if (parts.stream().allMatch(part -> part instanceof SortedStringSet)) {
+            List<SortedStringSet> sortedParts = new ArrayList<>();
+            parts.forEach(part -> sortedParts.add((SortedStringSet) part));
+            return SortedStringSet.union(sortedParts);
+        }
+        // Some chunk had non-numeric elements, or was not sorted, so the whole file falls back to a HashSet
+        if (parts.stream().noneMatch(part -> part instanceof HashSet)) {
+            Set<String> merged = new HashSet<>();
+            parts.forEach(merged::addAll);
+            return merged;
+        }
+        // Grow the largest hash set part instead of copying it
+        Set<String> merged = parts.stream().filter(part -> part instanceof HashSet)
+                .max(Comparator.comparingInt(Set::size)).get();
+        for (Set<String> part : parts) {
+            if (part != merged) {
+                merged.addAll(part);
+            }
+        }
+        return merged;
+    }
+}
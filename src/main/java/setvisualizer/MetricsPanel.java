@@ -0,0 +1,124 @@
+package setvisualizer;
+
+import javax.swing.*;
+import javax.swing.table.AbstractTableModel;
+import java.awt.*;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+
+// Live table of the stage metrics, refreshed twice a second while it is showing
+public class MetricsPanel extends JPanel {
+    private static final String[] COLUMNS = {
+        "Stage", "Runs", "Last ms", "p50 ms", "p99 ms", "Max ms", "Last elements", "Last alloc MB", "Total alloc MB"
+    };
+
+    private final StageMetrics metrics;
+    private final MetricsTableModel tableModel = new MetricsTableModel();
+    private final javax.swing.Timer refreshTimer;
+
+    public MetricsPanel(StageMetrics metrics) {
+        super(new BorderLayout(5, 5));
+        this.metrics = metrics;
+        setBorder(BorderFactory.createEmptyBorder(5, 5, 5, 5));
+
+        JTable table = new JTable(tableModel);
+        table.setFont(new Font("Monospaced", Font.PLAIN, 12));
+        table.setPreferredScrollableViewportSize(new Dimension(760, 200));
+        add(new JScrollPane(table), BorderLayout.CENTER);
+
+        JButton saveButton = new JButton("Save JSON...");
+        saveButton.addActionListener(e -> saveJson());
+        JButton resetButton = new JButton("Reset");
+        resetButton.addActionListener(e -> {
+            metrics.reset();
+            tableModel.refresh();
+        });
+        JPanel buttons = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        buttons.add(resetButton);
+        buttons.add(saveButton);
+        add(buttons, BorderLayout.SOUTH);
+
+        refreshTimer = new javax.swing.Timer(500, e -> tableModel.refresh());
+    }
+
+    @Override
+    public void addNotify() {
+        super.addNotify();
+        tableModel.refresh();
+        refreshTimer.start();
+    }
+
+    @Override
+    public void removeNotify() {
+        refreshTimer.stop();
+        super.removeNotify();
+    }
+
+    private void saveJson() {
+        JFileChooser chooser = new JFileChooser();
+        chooser.setSelectedFile(new File("metrics.json"));
+        if (chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        try {
+            Files.write(chooser.getSelectedFile().toPath(), metrics.toJson().getBytes(StandardCharsets.UTF_8));
+        } catch (IOException ex) {
+            JOptionPane.showMessageDialog(this, "Could not save metrics: " + ex.getMessage(),
+                                          "Error", JOptionPane.ERROR_MESSAGE);
+        }
+    }
+
+    private class MetricsTableModel extends AbstractTableModel {
+        private List<StageMetrics.Stage> rows = new ArrayList<>();
+
+        void refresh() {
+            rows = new ArrayList<>(metrics.getStages());
+            fireTableDataChanged();
+        }
+
+        @Override
+        public int getRowCount() {
+            return rows.size();
+        }
+
+        @Override
+        public int getColumnCount() {
+            return COLUMNS.length;
+        }
+
+        @Override
+        public String getColumnName(int column) {
+            return COLUMNS[column];
+        }
+
+        @Override
+        public Object getValueAt(int row, int column) {
+            StageMetrics.Stage stage = rows.get(row);
+            LatencyHistogram latencies = stage.getLatencies();
+            switch (column) {
+                case 0:
+                    return stage.getName();
+                case 1:
+                    return String.format("%,d", latencies.getCount());
+                case 2:
+                    return String.format("%.2f", stage.getLastNanos() / 1e6);
+                case 3:
+                    return String.format("%.2f", latencies.percentileMicros(0.50) / 1e3);
+                case 4:
+                    return String.format("%.2f", latencies.percentileMicros(0.99) / 1e3);
+                case 5:
+                    return String.format("%.2f", latencies.getMaxMicros() / 1e3);
+                case 6:
+                    return String.format("%,d", stage.getLastElements());
+                case 7:
+                    return String.format("%.2f", stage.getLastAllocatedBytes() / 1e6);
+                default:
+                    return String.format("%.1f", stage.getTotalAllocatedBytes() / 1e6);
+            }
+        }
+    }
+}
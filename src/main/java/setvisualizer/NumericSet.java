@@ -0,0 +1,620 @@
+package setvisualizer;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.LongConsumer;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Set of canonical decimal integers ("42", "-7"; no '+', no leading zeros) kept as
+// a compressed bitmap instead of boxed Strings.
+// Values are split into 64K-wide blocks keyed by their high bits. A block is either
+// a sorted char array (sparse) or a 1024-word bitmap (dense), like a RoaringBitmap
+// without run containers, so set algebra on dense data works 64 values at a time.
+// It is a Set<String> so it can stand in wherever the HashSet path is used; Strings
+// are only created while iterating.
+public class NumericSet extends AbstractSet<String> {
+    // Returned by parse() for anything that is not a canonical integer
+    static final long NOT_NUMERIC = Long.MIN_VALUE;
+    // Longest accepted number; 18 digits can never overflow a long
+    static final int MAX_DIGITS = 18;
+
+    static final int ARRAY_LIMIT = 4096;         // larger blocks are stored as bitmaps
+    private static final int WORDS = 1024;       // 64K bits per bitmap block
+
+    private static final int OR = 0, AND_NOT = 1;
+
+    private final TreeMap<Long, Container> blocks = new TreeMap<>();
+    private int size;
+
+    // Value of a canonical decimal integer, or NOT_NUMERIC
+    static long parse(CharSequence text, int start, int end) {
+        boolean negative = start < end && text.charAt(start) == '-';
+        int digits = negative ? start + 1 : start;
+        int count = end - digits;
+        if (count < 1 || count > MAX_DIGITS) {
+            return NOT_NUMERIC;
+        }
+        // "007" and "-0" are different elements than "7" and "0"
+        if (text.charAt(digits) == '0' && (count > 1 || negative)) {
+            return NOT_NUMERIC;
+        }
+        long value = 0;
+        for (int i = digits; i < end; i++) {
+            char c = text.charAt(i);
+            if (c < '0' || c > '9') {
+                return NOT_NUMERIC;
+            }
+            value = value * 10 + (c - '0');
+        }
+        return negative ? -value : value;
+    }
+
+    private static long parse(Object element) {
+        if (!(element instanceof String)) {
+            return NOT_NUMERIC;
+        }
+        String text = (String) element;
+        return parse(text, 0, text.length());
+    }
+
+    public boolean add(long value) {
+        long high = value >> 16;
+        Container block = blocks.get(high);
+        if (block == null) {
+            blocks.put(high, new ArrayContainer(new char[] {(char) value}, 1));
+            size++;
+            return true;
+        }
+        int before = block.cardinality();
+        Container updated = block.add((char) value);
+        if (updated != block) {
+            blocks.put(high, updated);
+        }
+        size += updated.cardinality() - before;
+        return updated.cardinality() != before;
+    }
+
+    // Whether the block the value falls in is stored as a bitmap
+    boolean isDenseBlock(long value) {
+        return blocks.get(value >> 16) instanceof BitmapContainer;
+    }
+
+    public boolean contains(long value) {
+        Container block = blocks.get(value >> 16);
+        return block != null && block.contains((char) value);
+    }
+
+    public boolean remove(long value) {
+        long high = value >> 16;
+        Container block = blocks.get(high);
+        if (block == null || !block.contains((char) value)) {
+            return false;
+        }
+        Container updated = block.remove((char) value);
+        if (updated.cardinality() == 0) {
+            blocks.remove(high);
+        } else if (updated != block) {
+            blocks.put(high, updated);
+        }
+        size--;
+        return true;
+    }
+
+    @Override
+    public boolean add(String element) {
+        long value = parse(element);
+        if (value == NOT_NUMERIC) {
+            throw new IllegalArgumentException("Not a canonical integer: " + element);
+        }
+        return add(value);
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        long value = parse(element);
+        return value != NOT_NUMERIC && contains(value);
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        long value = parse(element);
+        return value != NOT_NUMERIC && remove(value);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        PrimitiveIterator.OfLong values = longIterator();
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return values.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return Long.toString(values.nextLong());
+            }
+        };
+    }
+
+    // Values in ascending order
+    public PrimitiveIterator.OfLong longIterator() {
+        return new PrimitiveIterator.OfLong() {
+            private final Iterator<Map.Entry<Long, Container>> entries = blocks.entrySet().iterator();
+            private long high;
+            private Container block;
+            private int next = -1; // next low bits in the current block, or -1
+
+            @Override
+            public boolean hasNext() {
+                while (next < 0) {
+                    if (!entries.hasNext()) {
+                        return false;
+                    }
+                    Map.Entry<Long, Container> entry = entries.next();
+                    high = entry.getKey();
+                    block = entry.getValue();
+                    next = block.nextValue(0);
+                }
+                return true;
+            }
+
+            @Override
+            public long nextLong() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                long value = (high << 16) | next;
+                next = next == 0xFFFF ? -1 : block.nextValue(next + 1);
+                return value;
+            }
+        };
+    }
+
+    public void forEachLong(LongConsumer action) {
+        for (Map.Entry<Long, Container> entry : blocks.entrySet()) {
+            entry.getValue().forEach(entry.getKey() << 16, action);
+        }
+    }
+
+    public long[] toLongArray() {
+        long[] values = new long[size];
+        int[] count = new int[1];
+        forEachLong(value -> values[count[0]++] = value);
+        return values;
+    }
+
+    // Elements of a that are not in b, block by block
+    public static NumericSet andNot(NumericSet a, NumericSet b) {
+        NumericSet result = new NumericSet();
+        for (Map.Entry<Long, Container> entry : a.blocks.entrySet()) {
+            Container right = b.blocks.get(entry.getKey());
+            Container block = right == null ? entry.getValue().copy() : combine(entry.getValue(), right, AND_NOT);
+            if (block.cardinality() > 0) {
+                result.putBlock(entry.getKey(), block);
+            }
+        }
+        return result;
+    }
+
+    // Adds every element of the other set, block by block
+    public void orInPlace(NumericSet other) {
+        for (Map.Entry<Long, Container> entry : other.blocks.entrySet()) {
+            Container existing = blocks.get(entry.getKey());
+            Container merged = existing == null ? entry.getValue().copy() : combine(existing, entry.getValue(), OR);
+            blocks.put(entry.getKey(), merged);
+            size += merged.cardinality() - (existing == null ? 0 : existing.cardinality());
+        }
+    }
+
+    private static Container combine(Container left, Container right, int op) {
+        if (left instanceof ArrayContainer && right instanceof ArrayContainer) {
+            return mergeArrays((ArrayContainer) left, (ArrayContainer) right, op);
+        }
+        long[] a = left.words();
+        long[] b = right.words();
+        long[] out = new long[WORDS];
+        if (op == OR) {
+            for (int w = 0; w < WORDS; w++) {
+                out[w] = a[w] | b[w];
+            }
+        } else {
+            for (int w = 0; w < WORDS; w++) {
+                out[w] = a[w] & ~b[w];
+            }
+        }
+        return Container.fromWords(out);
+    }
+
+    // Sparse blocks are cheaper to merge than to expand into 1024-word bitmaps
+    private static Container mergeArrays(ArrayContainer left, ArrayContainer right, int op) {
+        char[] out = new char[op == OR ? left.cardinality + right.cardinality : left.cardinality];
+        int i = 0, j = 0, n = 0;
+        while (i < left.cardinality && j < right.cardinality) {
+            char x = left.values[i], y = right.values[j];
+            if (x == y) {
+                if (op == OR) {
+                    out[n++] = x;
+                }
+                i++;
+                j++;
+            } else if (x < y) {
+                out[n++] = x;
+                i++;
+            } else {
+                if (op == OR) {
+                    out[n++] = y;
+                }
+                j++;
+            }
+        }
+        while (i < left.cardinality) {
+            out[n++] = left.values[i++];
+        }
+        if (op == OR) {
+            while (j < right.cardinality) {
+                out[n++] = right.values[j++];
+            }
+        }
+        return Container.fromSorted(out, n);
+    }
+
+    private void putBlock(long high, Container block) {
+        blocks.put(high, block);
+        size += block.cardinality();
+    }
+
+    // Venn regions of numeric sets, keyed by membership mask (bit i = in set i).
+    // Dense blocks are split with word-level bit logic; sparse blocks with a k-way merge.
+    // Blocks are independent, so the parallel path hands ranges of them to the common pool.
+    static Map<Integer, NumericSet> regions(List<NumericSet> sets, boolean parallel) {
+        TreeSet<Long> highSet = new TreeSet<>();
+        for (NumericSet set : sets) {
+            highSet.addAll(set.blocks.keySet());
+        }
+        long[] highs = highSet.stream().mapToLong(Long::longValue).toArray();
+        Thread caller = Thread.currentThread();
+        if (!parallel) {
+            return regions(sets, highs, 0, highs.length, caller);
+        }
+
+        int ranges = Math.max(1, Math.min(highs.length, ForkJoinPool.getCommonPoolParallelism() * 4));
+        List<Map<Integer, NumericSet>> parts = IntStream.range(0, ranges).parallel()
+                .mapToObj(r -> regions(sets, highs, (int) ((long) highs.length * r / ranges),
+                        (int) ((long) highs.length * (r + 1) / ranges), caller))
+                .collect(Collectors.toList());
+
+        // The ranges cover disjoint blocks, so merging just moves containers over
+        Map<Integer, NumericSet> regions = new HashMap<>();
+        for (Map<Integer, NumericSet> part : parts) {
+            for (Map.Entry<Integer, NumericSet> region : part.entrySet()) {
+                NumericSet target = regions.computeIfAbsent(region.getKey(), mask -> new NumericSet());
+                for (Map.Entry<Long, Container> block : region.getValue().blocks.entrySet()) {
+                    target.putBlock(block.getKey(), block.getValue());
+                }
+            }
+        }
+        return regions;
+    }
+
+    private static Map<Integer, NumericSet> regions(List<NumericSet> sets, long[] highs, int from, int to, Thread caller) {
+        int n = sets.size();
+        Map<Integer, NumericSet> regions = new HashMap<>();
+        Container[] blocks = new Container[n];
+        for (int h = from; h < to; h++) {
+            long high = highs[h];
+            if (caller.isInterrupted()) {
+                throw new CancellationException();
+            }
+            boolean dense = false;
+            for (int i = 0; i < n; i++) {
+                blocks[i] = sets.get(i).blocks.get(high);
+                dense |= blocks[i] instanceof BitmapContainer;
+            }
+            Map<Integer, Container> split = dense ? splitWords(blocks) : splitArrays(blocks);
+            for (Map.Entry<Integer, Container> region : split.entrySet()) {
+                regions.computeIfAbsent(region.getKey(), mask -> new NumericSet()).putBlock(high, region.getValue());
+            }
+        }
+        return regions;
+    }
+
+    private static Map<Integer, Container> splitWords(Container[] blocks) {
+        int n = blocks.length;
+        long[][] words = new long[n][];
+        for (int i = 0; i < n; i++) {
+            words[i] = blocks[i] == null ? new long[WORDS] : blocks[i].words();
+        }
+
+        Map<Integer, long[]> regionWords = new HashMap<>();
+        for (int w = 0; w < WORDS; w++) {
+            long union = 0;
+            for (int i = 0; i < n; i++) {
+                union |= words[i][w];
+            }
+            if (union == 0) {
+                continue;
+            }
+            if (n <= 4) {
+                // Few sets: derive every region's word directly, AND-ing each set's word or its complement
+                for (int mask = 1; mask < (1 << n); mask++) {
+                    long region = union;
+                    for (int i = 0; i < n && region != 0; i++) {
+                        region &= (mask & (1 << i)) != 0 ? words[i][w] : ~words[i][w];
+                    }
+                    if (region != 0) {
+                        regionWords.computeIfAbsent(mask, m -> new long[WORDS])[w] |= region;
+                    }
+                }
+            } else {
+                // Many sets: 2^n candidate regions, so walk the set bits instead
+                for (long bits = union; bits != 0; bits &= bits - 1) {
+                    int bit = Long.numberOfTrailingZeros(bits);
+                    int mask = 0;
+                    for (int i = 0; i < n; i++) {
+                        mask |= (int) ((words[i][w] >>> bit) & 1) << i;
+                    }
+                    regionWords.computeIfAbsent(mask, m -> new long[WORDS])[w] |= 1L << bit;
+                }
+            }
+        }
+
+        Map<Integer, Container> split = new HashMap<>();
+        for (Map.Entry<Integer, long[]> region : regionWords.entrySet()) {
+            split.put(region.getKey(), Container.fromWords(region.getValue()));
+        }
+        return split;
+    }
+
+    private static Map<Integer, Container> splitArrays(Container[] blocks) {
+        int n = blocks.length;
+        int[] positions = new int[n];
+        Map<Integer, char[]> values = new HashMap<>();
+        Map<Integer, Integer> counts = new HashMap<>();
+
+        while (true) {
+            int min = Integer.MAX_VALUE;
+            for (int i = 0; i < n; i++) {
+                if (blocks[i] != null && positions[i] < blocks[i].cardinality()) {
+                    min = Math.min(min, ((ArrayContainer) blocks[i]).values[positions[i]]);
+                }
+            }
+            if (min == Integer.MAX_VALUE) {
+                break;
+            }
+            int mask = 0;
+            for (int i = 0; i < n; i++) {
+                if (blocks[i] != null && positions[i] < blocks[i].cardinality()
+                        && ((ArrayContainer) blocks[i]).values[positions[i]] == min) {
+                    mask |= 1 << i;
+                    positions[i]++;
+                }
+            }
+            int count = counts.getOrDefault(mask, 0);
+            char[] region = values.get(mask);
+            if (region == null || region.length == count) {
+                region = region == null ? new char[8] : Arrays.copyOf(region, count * 2);
+                values.put(mask, region);
+            }
+            region[count] = (char) min;
+            counts.put(mask, count + 1);
+        }
+
+        Map<Integer, Container> split = new HashMap<>();
+        for (Map.Entry<Integer, char[]> region : values.entrySet()) {
+            split.put(region.getKey(), Container.fromSorted(region.getValue(), counts.get(region.getKey())));
+        }
+        return split;
+    }
+
+    // One 64K block of values, addressed by their low 16 bits
+    private abstract static class Container {
+        abstract int cardinality();
+
+        abstract boolean contains(char low);
+
+        // Both return the container to keep, which may have switched representation
+        abstract Container add(char low);
+
+        abstract Container remove(char low);
+
+        // Bitmap view of the block; callers must not modify it
+        abstract long[] words();
+
+        // Smallest value >= from in this block, or -1
+        abstract int nextValue(int from);
+
+        abstract void forEach(long base, LongConsumer action);
+
+        abstract Container copy();
+
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word : words) {
+                cardinality += Long.bitCount(word);
+            }
+            if (cardinality > ARRAY_LIMIT) {
+                return new BitmapContainer(words, cardinality);
+            }
+            char[] values = new char[cardinality];
+            int n = 0;
+            for (int w = 0; w < WORDS; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    values[n++] = (char) (w * 64 + Long.numberOfTrailingZeros(bits));
+                }
+            }
+            return new ArrayContainer(values, n);
+        }
+
+        static Container fromSorted(char[] values, int count) {
+            if (count <= ARRAY_LIMIT) {
+                return new ArrayContainer(values, count);
+            }
+            long[] words = new long[WORDS];
+            for (int i = 0; i < count; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return new BitmapContainer(words, count);
+        }
+    }
+
+    private static class ArrayContainer extends Container {
+        char[] values;
+        int cardinality;
+
+        ArrayContainer(char[] values, int cardinality) {
+            this.values = values;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(values, 0, cardinality, low) >= 0;
+        }
+
+        @Override
+        Container add(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                return this;
+            }
+            if (cardinality == ARRAY_LIMIT) {
+                BitmapContainer bitmap = new BitmapContainer(words(), cardinality);
+                return bitmap.add(low);
+            }
+            index = -index - 1;
+            if (cardinality == values.length) {
+                values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(8, cardinality * 2)));
+            }
+            System.arraycopy(values, index, values, index + 1, cardinality - index);
+            values[index] = low;
+            cardinality++;
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            int index = Arrays.binarySearch(values, 0, cardinality, low);
+            if (index >= 0) {
+                System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+                cardinality--;
+            }
+            return this;
+        }
+
+        @Override
+        long[] words() {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < cardinality; i++) {
+                words[values[i] >>> 6] |= 1L << values[i];
+            }
+            return words;
+        }
+
+        @Override
+        int nextValue(int from) {
+            int index = Arrays.binarySearch(values, 0, cardinality, (char) from);
+            if (index < 0) {
+                index = -index - 1;
+            }
+            return index < cardinality ? values[index] : -1;
+        }
+
+        @Override
+        void forEach(long base, LongConsumer action) {
+            for (int i = 0; i < cardinality; i++) {
+                action.accept(base | values[i]);
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new ArrayContainer(Arrays.copyOf(values, cardinality), cardinality);
+        }
+    }
+
+    private static class BitmapContainer extends Container {
+        final long[] words;
+        int cardinality;
+
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        @Override
+        int cardinality() {
+            return cardinality;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        Container add(char low) {
+            if (!contains(low)) {
+                words[low >>> 6] |= 1L << low;
+                cardinality++;
+            }
+            return this;
+        }
+
+        @Override
+        Container remove(char low) {
+            if (contains(low)) {
+                words[low >>> 6] &= ~(1L << low);
+                cardinality--;
+                if (cardinality <= ARRAY_LIMIT) {
+                    return fromWords(words);
+                }
+            }
+            return this;
+        }
+
+        @Override
+        long[] words() {
+            return words;
+        }
+
+        @Override
+        int nextValue(int from) {
+            int w = from >>> 6;
+            long bits = words[w] & (-1L << from);
+            while (bits == 0) {
+                if (++w == WORDS) {
+                    return -1;
+                }
+                bits = words[w];
+            }
+            return w * 64 + Long.numberOfTrailingZeros(bits);
+        }
+
+        @Override
+        void forEach(long base, LongConsumer action) {
+            for (int w = 0; w < WORDS; w++) {
+                for (long bits = words[w]; bits != 0; bits &= bits - 1) {
+                    action.accept(base | (w * 64 + Long.numberOfTrailingZeros(bits)));
+                }
+            }
+        }
+
+        @Override
+        Container copy() {
+            return new BitmapContainer(words.clone(), cardinality);
+        }
+    }
+}
@@ -0,0 +1,469 @@
+package setvisualizer;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// N-way Venn region index.
+// Every element of the union belongs to exactly one region, identified by its
+// membership bitmask (bit i set = element is in set i). Only non-empty regions
+// are stored, so 16 sets with mostly empty regions stay cheap, and every query
+// below costs time proportional to the input, never to the 2^n possible regions.
+// An index can be updated in place with replaceSet(), so it must be confined to
+// one thread (or handed over safely) like any other mutable collection.
+// When every set arrives sorted (SortedStringSet) nothing is hashed: the regions come
+// out of one k-way merge, already in element order, and so does every result.
+public class RegionIndex {
+    public static final int MAX_SETS = 16;
+    // Below this many input elements the sequential path is faster than forking
+    static final int PARALLEL_THRESHOLD = 200_000;
+    // Elements per piece the parallel path partitions the inputs in
+    private static final int PIECE_SIZE = 1 << 14;
+
+    private final List<Set<String>> sets;
+    private final SortedMap<Integer, Set<String>> regions;
+    // Number of hash partitions the regions were built in (1 = sequential)
+    private final int shardCount;
+    // Whether the regions are SortedStringSets from the sorted merge
+    private boolean sorted;
+
+    public RegionIndex(List<Set<String>> sets) {
+        if (sets.size() > MAX_SETS) {
+            throw new IllegalArgumentException("At most " + MAX_SETS + " sets are supported");
+        }
+        this.sets = new ArrayList<>(sets);
+        this.regions = new TreeMap<>();
+        this.shardCount = !useSortedMerge(sets) && useParallel(sets) ? ForkJoinPool.getCommonPoolParallelism() : 1;
+        regions.putAll(buildRegions());
+        sorted = useSortedMerge(sets);
+    }
+
+    // Swaps in new contents for one set, moving only the elements that were added
+    // or removed between region buckets. Returns the number of elements moved.
+    // A rebuild that is cancelled part way leaves the index as it was.
+    public int replaceSet(int index, Set<String> newSet) {
+        Set<String> oldSet = sets.get(index);
+        boolean wasNumeric = allNumeric();
+        sets.set(index, newSet);
+        if (allNumeric() != wasNumeric || sorted || useSortedMerge(sets)) {
+            // The regions change representation (or are immutable sorted arrays, which a
+            // merge rebuilds in linear time), so there is nothing to update in place
+            Map<Integer, ? extends Set<String>> rebuilt;
+            try {
+                rebuilt = buildRegions();
+            } catch (RuntimeException | Error e) {
+                sets.set(index, oldSet);
+                throw e;
+            }
+            regions.clear();
+            regions.putAll(rebuilt);
+            sorted = useSortedMerge(sets);
+            return newSet.size();
+        }
+        sets.set(index, oldSet);
+
+        int bit = 1 << index;
+        int moved = 0;
+        if (wasNumeric) {
+            NumericSet oldNumbers = (NumericSet) oldSet;
+            NumericSet newNumbers = (NumericSet) newSet;
+            NumericSet removed = NumericSet.andNot(oldNumbers, newNumbers);
+            NumericSet added = NumericSet.andNot(newNumbers, oldNumbers);
+            PrimitiveIterator.OfLong values = removed.longIterator();
+            while (values.hasNext()) {
+                long value = values.nextLong();
+                int mask = numericMembership(value);
+                moveNumber(value, mask, mask & ~bit);
+            }
+            values = added.longIterator();
+            while (values.hasNext()) {
+                long value = values.nextLong();
+                int mask = numericMembership(value);
+                moveNumber(value, mask, mask | bit);
+            }
+            moved = removed.size() + added.size();
+        } else {
+            for (String element : oldSet) {
+                if (!newSet.contains(element)) {
+                    int mask = getMembership(element);
+                    move(element, mask, mask & ~bit);
+                    moved++;
+                }
+            }
+            for (String element : newSet) {
+                if (!oldSet.contains(element)) {
+                    int mask = getMembership(element);
+                    move(element, mask, mask | bit);
+                    moved++;
+                }
+            }
+        }
+        sets.set(index, newSet);
+        return moved;
+    }
+
+    private int numericMembership(long value) {
+        int mask = 0;
+        for (int i = 0; i < sets.size(); i++) {
+            if (((NumericSet) sets.get(i)).contains(value)) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    private void move(String element, int from, int to) {
+        if (from != 0) {
+            Set<String> region = regions.get(from);
+            region.remove(element);
+            if (region.isEmpty()) {
+                regions.remove(from);
+            }
+        }
+        if (to != 0) {
+            regions.computeIfAbsent(to, mask -> newRegion()).add(element);
+        }
+    }
+
+    private void moveNumber(long value, int from, int to) {
+        if (from != 0) {
+            NumericSet region = (NumericSet) regions.get(from);
+            region.remove(value);
+            if (region.isEmpty()) {
+                regions.remove(from);
+            }
+        }
+        if (to != 0) {
+            ((NumericSet) regions.computeIfAbsent(to, mask -> newRegion())).add(value);
+        }
+    }
+
+    // Empty region of the same representation as the ones built for these sets
+    private Set<String> newRegion() {
+        if (allNumeric()) {
+            return new NumericSet();
+        }
+        if (shardCount > 1) {
+            List<Set<String>> shards = new ArrayList<>();
+            for (int i = 0; i < shardCount; i++) {
+                shards.add(new HashSet<>());
+            }
+            return new ShardedSet(shards);
+        }
+        return new HashSet<>();
+    }
+
+    private static boolean useParallel(List<Set<String>> sets) {
+        if (ForkJoinPool.getCommonPoolParallelism() < 2) {
+            return false;
+        }
+        long total = 0;
+        for (Set<String> set : sets) {
+            total += set.size();
+        }
+        return total >= PARALLEL_THRESHOLD;
+    }
+
+    // Sorted sets are merged instead of hashed, but only when all of them arrive sorted:
+    // sorting a hashed set just to merge it costs more than probing it
+    private static boolean useSortedMerge(List<Set<String>> sets) {
+        if (sets.isEmpty()) {
+            return false;
+        }
+        for (Set<String> set : sets) {
+            if (!(set instanceof SortedStringSet)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean allNumeric() {
+        for (Set<String> set : sets) {
+            if (!(set instanceof NumericSet)) {
+                return false;
+            }
+        }
+        return !sets.isEmpty();
+    }
+
+    private List<SortedStringSet> sortedSets() {
+        List<SortedStringSet> sortedSets = new ArrayList<>();
+        for (Set<String> set : sets) {
+            sortedSets.add((SortedStringSet) set);
+        }
+        return sortedSets;
+    }
+
+    // Regions of the current sets, built aside so the index is only changed once it is done
+    private Map<Integer, ? extends Set<String>> buildRegions() {
+        if (useSortedMerge(sets)) {
+            return SortedStringSet.regions(sortedSets());
+        }
+        if (allNumeric()) {
+            List<NumericSet> numericSets = new ArrayList<>();
+            for (Set<String> set : sets) {
+                numericSets.add((NumericSet) set);
+            }
+            return NumericSet.regions(numericSets, shardCount > 1);
+        }
+
+        Thread caller = Thread.currentThread();
+        List<Piece> pieces = new ArrayList<>();
+        if (shardCount == 1) {
+            for (int i = 0; i < sets.size(); i++) {
+                pieces.add(new Piece(i, sets.get(i)));
+            }
+            return bucketShard(pieces, 0, caller);
+        }
+
+        // The inputs are cut into pieces whose elements are routed to their hash
+        // partition in parallel, each element once. Then every shard task buckets only
+        // its own partition, so the shards are disjoint and the inputs are only read.
+        for (int i = 0; i < sets.size(); i++) {
+            split(sets.get(i).spliterator(), i, pieces);
+        }
+        pieces.parallelStream().forEach(piece -> piece.partition(shardCount, caller));
+        List<Map<Integer, Set<String>>> shards = IntStream.range(0, shardCount).parallel()
+                .mapToObj(shard -> bucketShard(pieces, shard, caller))
+                .collect(Collectors.toList());
+
+        Set<Integer> masks = new TreeSet<>();
+        shards.forEach(shard -> masks.addAll(shard.keySet()));
+        Map<Integer, Set<String>> built = new HashMap<>();
+        for (int mask : masks) {
+            List<Set<String>> parts = new ArrayList<>();
+            for (Map<Integer, Set<String>> shard : shards) {
+                parts.add(shard.getOrDefault(mask, new HashSet<>()));
+            }
+            built.put(mask, new ShardedSet(parts));
+        }
+        return built;
+    }
+
+    // Cuts an input into pieces of at most about PIECE_SIZE elements
+    private static void split(Spliterator<String> elements, int input, List<Piece> pieces) {
+        Spliterator<String> prefix;
+        while (elements.estimateSize() > PIECE_SIZE && (prefix = elements.trySplit()) != null) {
+            split(prefix, input, pieces);
+        }
+        pieces.add(new Piece(input, elements));
+    }
+
+    // One pass over the union: every element is visited once (in the first set
+    // that contains it), its mask is built and it goes straight into its region.
+    // With several shards only the given hash partition of each piece is read.
+    private Map<Integer, Set<String>> bucketShard(List<Piece> pieces, int shard, Thread caller) {
+        Map<Integer, Set<String>> buckets = new HashMap<>();
+        int lastMask = 0;
+        Set<String> lastBucket = null;
+        int visited = 0;
+
+        for (Piece piece : pieces) {
+            for (String element : piece.shards.get(shard)) {
+                // Let a cancelled background calculation bail out of large inputs
+                if ((++visited & 0xFFFF) == 0 && caller.isInterrupted()) {
+                    throw new CancellationException();
+                }
+                int mask = membershipMask(element, piece.input);
+                if (mask == 0) {
+                    continue;
+                }
+                if (mask != lastMask) {
+                    lastMask = mask;
+                    lastBucket = buckets.computeIfAbsent(mask, m -> new HashSet<>());
+                }
+                lastBucket.add(element);
+            }
+        }
+        return buckets;
+    }
+
+    // Membership bitmask of an element found in set `first`, or 0 if an earlier
+    // set already contains it (it was bucketed when that set was scanned).
+    private int membershipMask(String element, int first) {
+        for (int j = 0; j < first; j++) {
+            if (sets.get(j).contains(element)) {
+                return 0;
+            }
+        }
+        int mask = 1 << first;
+        for (int j = first + 1; j < sets.size(); j++) {
+            if (sets.get(j).contains(element)) {
+                mask |= 1 << j;
+            }
+        }
+        return mask;
+    }
+
+    // Part of one input, and its elements grouped by hash partition once partitioned
+    private static class Piece {
+        final int input;
+        private Spliterator<String> elements;
+        List<Collection<String>> shards;
+
+        Piece(int input, Collection<String> elements) {
+            this.input = input;
+            this.shards = Collections.singletonList(elements);
+        }
+
+        Piece(int input, Spliterator<String> elements) {
+            this.input = input;
+            this.elements = elements;
+        }
+
+        void partition(int shardCount, Thread caller) {
+            if (caller.isInterrupted()) {
+                throw new CancellationException();
+            }
+            int capacity = (int) Math.min(elements.estimateSize() / shardCount * 5 / 4 + 16, PIECE_SIZE);
+            List<Collection<String>> lists = new ArrayList<>();
+            for (int i = 0; i < shardCount; i++) {
+                lists.add(new ArrayList<>(capacity));
+            }
+            elements.forEachRemaining(element -> lists.get(ShardedSet.shardOf(element, shardCount)).add(element));
+            elements = null;
+            shards = lists;
+        }
+    }
+
+    public int getNumSets() {
+        return sets.size();
+    }
+
+    // Whether regions and results are SortedStringSets, iterating in element order
+    public boolean isSorted() {
+        return sorted;
+    }
+
+    public Set<String> getSet(int index) {
+        return sets.get(index);
+    }
+
+    // Masks of the non-empty regions, in ascending order
+    public Set<Integer> getRegionMasks() {
+        return Collections.unmodifiableSet(regions.keySet());
+    }
+
+    public Set<String> getRegion(int mask) {
+        Set<String> region = regions.get(mask);
+        return region == null ? Collections.emptySet() : Collections.unmodifiableSet(region);
+    }
+
+    // The region itself rather than a read-only view, for readers in this package
+    // that work with its representation; empty regions are null
+    Set<String> regionSet(int mask) {
+        return regions.get(mask);
+    }
+
+    public int getRegionSize(int mask) {
+        Set<String> region = regions.get(mask);
+        return region == null ? 0 : region.size();
+    }
+
+    // Region an element lives in, or 0 if it is in none of the sets
+    public int getMembership(String element) {
+        int mask = 0;
+        for (int i = 0; i < sets.size(); i++) {
+            if (sets.get(i).contains(element)) {
+                mask |= 1 << i;
+            }
+        }
+        return mask;
+    }
+
+    // Result of one of the operations offered by the visualizer, assembled from the regions
+    public Set<String> result(String operation) {
+        if (sorted) {
+            // One more merge of the sorted sets, keeping the elements whose membership is in
+            // the result: linear in the input however many regions the result spans
+            return SortedStringSet.select(sortedSets(), mask -> inResult(operation, mask, sets.size()));
+        }
+        if (allNumeric()) {
+            // Regions are disjoint bitmaps, so the result is a block-wise OR of them
+            NumericSet resultSet = new NumericSet();
+            for (Map.Entry<Integer, Set<String>> region : regions.entrySet()) {
+                if (inResult(operation, region.getKey(), sets.size())) {
+                    resultSet.orInPlace((NumericSet) region.getValue());
+                }
+            }
+            return resultSet;
+        }
+
+        if (shardCount > 1) {
+            // Same hash partitions as the regions, so each shard's result is built independently
+            List<Set<String>> shards = IntStream.range(0, shardCount).parallel()
+                    .mapToObj(shard -> {
+                        Set<String> part = new HashSet<>();
+                        for (Map.Entry<Integer, Set<String>> region : regions.entrySet()) {
+                            if (inResult(operation, region.getKey(), sets.size())) {
+                                part.addAll(((ShardedSet) region.getValue()).getShard(shard));
+                            }
+                        }
+                        return part;
+                    })
+                    .collect(Collectors.toList());
+            return new ShardedSet(shards);
+        }
+
+        int resultSize = 0;
+        for (Map.Entry<Integer, Set<String>> region : regions.entrySet()) {
+            if (inResult(operation, region.getKey(), sets.size())) {
+                resultSize += region.getValue().size();
+            }
+        }
+        Set<String> resultSet = new HashSet<>(Math.max(16, (int) (resultSize / 0.75f) + 1));
+        for (Map.Entry<Integer, Set<String>> region : regions.entrySet()) {
+            if (inResult(operation, region.getKey(), sets.size())) {
+                resultSet.addAll(region.getValue());
+            }
+        }
+        return resultSet;
+    }
+
+    // The operations by the names the CLI and the service accept, e.g. "symmetric-difference"
+    public static final Map<String, String> OPERATION_NAMES;
+
+    static {
+        Map<String, String> names = new LinkedHashMap<>();
+        names.put("union", "Union");
+        names.put("intersection", "Intersection");
+        names.put("difference", "Difference");
+        names.put("symmetric-difference", "Symmetric Difference");
+        OPERATION_NAMES = Collections.unmodifiableMap(names);
+    }
+
+    // Whether the region with the given membership mask belongs to the result of the operation
+    public static boolean inResult(String operation, int mask, int numSets) {
+        switch (operation) {
+            case "Union":
+                return true;
+            case "Intersection":
+                return mask == (1 << numSets) - 1;
+            case "Difference":
+                // A \ B (only the first two sets take part)
+                return numSets < 2 ? (mask & 1) != 0 : (mask & 0b11) == 0b01;
+            case "Symmetric Difference":
+                // (A ∪ B) \ (A ∩ B)
+                return numSets < 2 ? (mask & 1) != 0 : (mask & 0b11) == 0b01 || (mask & 0b11) == 0b10;
+            default:
+                throw new IllegalArgumentException("Unknown operation: " + operation);
+        }
+    }
+
+    // Human readable name of a region, e.g. "A∩C" for mask 0b101
+    public static String regionName(int mask) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < MAX_SETS; i++) {
+            if ((mask & (1 << i)) != 0) {
+                if (sb.length() > 0) {
+                    sb.append('∩');
+                }
+                sb.append((char) ('A' + i));
+            }
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,185 @@
+package setvisualizer;
+
+import java.util.*;
+
+// Least-recently-used cache of region indexes, keyed by the content of their input
+// sets, so a calculation over inputs seen before (e.g. after only switching the
+// operation) is a lookup. Results of the operations are kept with their index.
+// The cache is bounded by a rough estimate of the memory its entries hold.
+// Not thread-safe; the visualizer only uses it on its calculation thread.
+public class ResultCache {
+    // Content of the input sets, in order: per set its size and two order-independent hashes
+    public static final class Key {
+        private final long[] hashes;
+        private final int hashCode;
+
+        public Key(List<long[]> setHashes) {
+            hashes = new long[setHashes.size() * 3];
+            for (int i = 0; i < setHashes.size(); i++) {
+                System.arraycopy(setHashes.get(i), 0, hashes, i * 3, 3);
+            }
+            hashCode = Arrays.hashCode(hashes);
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Key && Arrays.equals(hashes, ((Key) other).hashes);
+        }
+
+        @Override
+        public int hashCode() {
+            return hashCode;
+        }
+    }
+
+    private static class Entry {
+        final RegionIndex index;
+        final Map<String, Set<String>> results = new HashMap<>();
+        long bytes;
+
+        Entry(RegionIndex index) {
+            this.index = index;
+        }
+    }
+
+    private final long maxBytes;
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+    private long hits;
+    private long misses;
+
+    public ResultCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    // Cached index for these inputs, or null; counts as a hit or a miss
+    public RegionIndex get(Key key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return entry.index;
+    }
+
+    // Cached index without counting a hit or a miss
+    public RegionIndex peek(Key key) {
+        Entry entry = entries.get(key);
+        return entry == null ? null : entry.index;
+    }
+
+    public void put(Key key, RegionIndex index) {
+        remove(key);
+        Entry entry = new Entry(index);
+        entry.bytes = estimateBytes(index);
+        entries.put(key, entry);
+        bytes += entry.bytes;
+        evict();
+    }
+
+    // Must be called before an index in the cache is changed in place
+    public void remove(Key key) {
+        Entry entry = key == null ? null : entries.remove(key);
+        if (entry != null) {
+            bytes -= entry.bytes;
+        }
+    }
+
+    // Result of the operation over the index, computed once per cached index
+    public Set<String> result(Key key, RegionIndex index, String operation) {
+        Entry entry = entries.get(key);
+        if (entry == null || entry.index != index) {
+            return index.result(operation);
+        }
+        Set<String> result = entry.results.get(operation);
+        if (result == null) {
+            result = index.result(operation);
+            long resultBytes = estimateBytes(result);
+            entry.results.put(operation, result);
+            entry.bytes += resultBytes;
+            bytes += resultBytes;
+            evict();
+        }
+        return result;
+    }
+
+    // Drops least recently used entries until the cache fits, always keeping the newest one
+    private void evict() {
+        Iterator<Entry> eldest = entries.values().iterator();
+        while (bytes > maxBytes && entries.size() > 1) {
+            bytes -= eldest.next().bytes;
+            eldest.remove();
+        }
+    }
+
+    public long getHits() {
+        return hits;
+    }
+
+    public long getMisses() {
+        return misses;
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    public long getBytes() {
+        return bytes;
+    }
+
+    // {size, sum of element hashes, sum of remixed element hashes}; 64-bit element
+    // hashes, so equal String.hashCode()s (e.g. "Aa" and "BB") do not collide
+    public static long[] contentHash(Set<String> set) {
+        long[] hash = {set.size(), 0, 0};
+        if (set instanceof NumericSet) {
+            ((NumericSet) set).forEachLong(value -> addElementHash(hash, mix(value)));
+        } else {
+            for (String element : set) {
+                long h = 0xCBF29CE484222325L;
+                for (int i = 0; i < element.length(); i++) {
+                    h = (h ^ element.charAt(i)) * 0x100000001B3L;
+                }
+                addElementHash(hash, mix(h));
+            }
+        }
+        return hash;
+    }
+
+    private static void addElementHash(long[] hash, long h) {
+        hash[1] += h;
+        hash[2] += mix(h + 0x9E3779B97F4A7C15L);
+    }
+
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        return h ^ (h >>> 33);
+    }
+
+    // Rough heap footprint: bitmaps take a few bytes per element, sorted arrays a
+    // reference, hash sets a node and table slot per element, plus the String
+    // itself for the input sets (shared with the regions)
+    static long estimateBytes(RegionIndex index) {
+        boolean numeric = true;
+        long total = 0;
+        for (int i = 0; i < index.getNumSets(); i++) {
+            Set<String> set = index.getSet(i);
+            numeric &= set instanceof NumericSet;
+            total += estimateBytes(set) + (set instanceof NumericSet ? 0 : 48L * set.size());
+        }
+        long perElement = numeric ? 2L : index.isSorted() ? 8L : 48L;
+        for (int mask : index.getRegionMasks()) {
+            total += 64 + perElement * index.getRegionSize(mask);
+        }
+        return total;
+    }
+
+    private static long estimateBytes(Set<String> set) {
+        long perElement = set instanceof NumericSet ? 2L : set instanceof SortedStringSet ? 8L : 48L;
+        return 64 + perElement * set.size();
+    }
+}
@@ -0,0 +1,68 @@
+package setvisualizer;
+
+import javax.swing.AbstractListModel;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Read-only list model over a result set for a virtualized JList.
+// Only references (or primitive values for numeric sets) are held; the text of a
+// row is produced when the list asks for it, which it only does for visible rows.
+// Sets from a session snapshot and sorted sets are indexed directly, so nothing is
+// decoded or copied up front. Numeric and sorted results are listed in order.
+public class ResultListModel extends AbstractListModel<String> {
+    private final Set<String> set;
+    private final Object[] elements; // null for numeric, sorted and snapshot sets
+    private final long[] numbers;    // null for non-numeric sets
+    private final SessionSnapshot.ElementSet snapshot; // null unless the set is from a snapshot
+    private final SortedStringSet sorted; // null unless the set is sorted
+
+    public ResultListModel(Set<String> set) {
+        this.set = set;
+        this.snapshot = set instanceof SessionSnapshot.ElementSet ? (SessionSnapshot.ElementSet) set : null;
+        this.sorted = set instanceof SortedStringSet ? (SortedStringSet) set : null;
+        if (snapshot != null || sorted != null) {
+            this.elements = null;
+            this.numbers = null;
+        } else if (set instanceof NumericSet) {
+            this.elements = null;
+            this.numbers = ((NumericSet) set).toLongArray();
+        } else {
+            this.elements = set.toArray();
+            this.numbers = null;
+        }
+    }
+
+    @Override
+    public int getSize() {
+        if (snapshot != null) {
+            return snapshot.size();
+        }
+        if (sorted != null) {
+            return sorted.size();
+        }
+        return numbers != null ? numbers.length : elements.length;
+    }
+
+    @Override
+    public String getElementAt(int index) {
+        if (snapshot != null) {
+            return snapshot.get(index);
+        }
+        if (sorted != null) {
+            return sorted.get(index);
+        }
+        return numbers != null ? Long.toString(numbers[index]) : (String) elements[index];
+    }
+
+    // Writes one element per line without building the whole text in memory
+    public void export(Path file) throws IOException {
+        try (Writer writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            for (String element : set) {
+                writer.write(element);
+                writer.write('\n');
+            }
+        }
+    }
+}
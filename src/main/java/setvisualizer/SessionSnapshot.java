@@ -0,0 +1,319 @@
+package setvisualizer;
+
+import java.io.*;
+import java.nio.*;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Binary snapshot of a calculated session: the region index and, through it, the
+// parsed sets. Elements are stored once, grouped by region, so a region is a
+// contiguous range of element ids and a set is the regions with its bit:
+//
+//   int magic, short version, short length + UTF-8 operation, byte numSets, byte kind, int regionCount
+//   regionCount x (int mask, int count)
+//   kind STRINGS: int[total + 1] byte offsets, then the UTF-8 bytes of every element
+//   kind NUMBERS: long[total], each region's values in ascending order
+//
+// Opening maps the file and reads only the header and region table; elements are
+// decoded when something asks for them, so even large sessions open instantly.
+public class SessionSnapshot {
+    private static final int MAGIC = 0x53455453; // "SETS"
+    private static final short VERSION = 1;
+    private static final byte STRINGS = 0;
+    private static final byte NUMBERS = 1;
+
+    private final String operation;
+    private final int numSets;
+    private final boolean numeric;
+    private final int[] masks;
+    // First element id of each region, plus the total at the end
+    private final int[] starts;
+    private final ByteBuffer buffer;
+    private final int offsetsPosition;
+    private final int dataPosition;
+
+    private SessionSnapshot(String operation, int numSets, boolean numeric, int[] masks, int[] starts,
+                            ByteBuffer buffer, int offsetsPosition, int dataPosition) {
+        this.operation = operation;
+        this.numSets = numSets;
+        this.numeric = numeric;
+        this.masks = masks;
+        this.starts = starts;
+        this.buffer = buffer;
+        this.offsetsPosition = offsetsPosition;
+        this.dataPosition = dataPosition;
+    }
+
+    public static void save(Path file, RegionIndex index, String operation) throws IOException {
+        List<Integer> masks = new ArrayList<>(index.getRegionMasks());
+        boolean numeric = true;
+        for (int i = 0; i < index.getNumSets(); i++) {
+            numeric &= index.getSet(i) instanceof NumericSet;
+        }
+
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 1 << 16))) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            byte[] operationBytes = operation.getBytes(StandardCharsets.UTF_8);
+            out.writeShort(operationBytes.length);
+            out.write(operationBytes);
+            out.writeByte(index.getNumSets());
+            out.writeByte(numeric ? NUMBERS : STRINGS);
+            out.writeInt(masks.size());
+            for (int mask : masks) {
+                out.writeInt(mask);
+                out.writeInt(index.getRegionSize(mask));
+            }
+
+            if (numeric) {
+                for (int mask : masks) {
+                    // Regions are NumericSets here, iterated in ascending order
+                    PrimitiveIterator.OfLong values = ((NumericSet) index.regionSet(mask)).longIterator();
+                    while (values.hasNext()) {
+                        out.writeLong(values.nextLong());
+                    }
+                }
+                return;
+            }
+
+            long offset = 0;
+            out.writeInt(0);
+            for (int mask : masks) {
+                for (String element : index.getRegion(mask)) {
+                    offset += utf8Length(element);
+                    if (offset > Integer.MAX_VALUE) {
+                        throw new IOException("Session is too large for a snapshot (over 2 GB of element text)");
+                    }
+                    out.writeInt((int) offset);
+                }
+            }
+            for (int mask : masks) {
+                for (String element : index.getRegion(mask)) {
+                    out.write(element.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+        }
+    }
+
+    // Bytes String.getBytes(UTF_8) produces, without encoding (unpaired surrogates become '?')
+    private static int utf8Length(String text) {
+        int length = 0;
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c < 0x80) {
+                length++;
+            } else if (c < 0x800) {
+                length += 2;
+            } else if (Character.isHighSurrogate(c) && i + 1 < text.length() && Character.isLowSurrogate(text.charAt(i + 1))) {
+                length += 4;
+                i++;
+            } else if (Character.isSurrogate(c)) {
+                length++;
+            } else {
+                length += 3;
+            }
+        }
+        return length;
+    }
+
+    public static SessionSnapshot open(Path file) throws IOException {
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IOException("Snapshot is too large to map");
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+
+        try {
+            if (buffer.getInt() != MAGIC) {
+                throw new IOException(file + " is not a set session snapshot");
+            }
+            short version = buffer.getShort();
+            if (version != VERSION) {
+                throw new IOException("Unsupported snapshot version " + version);
+            }
+            String operation = readUTF(buffer);
+            int numSets = buffer.get();
+            byte kind = buffer.get();
+            int regionCount = buffer.getInt();
+            if (numSets < 1 || numSets > RegionIndex.MAX_SETS || (kind != STRINGS && kind != NUMBERS) || regionCount < 0) {
+                throw new IOException(file + " has a corrupt header");
+            }
+
+            int[] masks = new int[regionCount];
+            int[] starts = new int[regionCount + 1];
+            for (int r = 0; r < regionCount; r++) {
+                masks[r] = buffer.getInt();
+                starts[r + 1] = Math.addExact(starts[r], buffer.getInt());
+            }
+            int total = starts[regionCount];
+
+            int offsetsPosition = buffer.position();
+            int dataPosition = kind == NUMBERS ? offsetsPosition : offsetsPosition + 4 * (total + 1);
+            long expected = kind == NUMBERS
+                    ? dataPosition + 8L * total
+                    : dataPosition + (long) buffer.getInt(offsetsPosition + 4 * total);
+            if (expected != buffer.limit()) {
+                throw new IOException(file + " is truncated or corrupt");
+            }
+            return new SessionSnapshot(operation, numSets, kind == NUMBERS, masks, starts,
+                                       buffer, offsetsPosition, dataPosition);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException | ArithmeticException ex) {
+            throw new IOException(file + " is truncated or corrupt", ex);
+        }
+    }
+
+    private static String readUTF(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getShort() & 0xFFFF];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    public String getOperation() {
+        return operation;
+    }
+
+    public int getNumSets() {
+        return numSets;
+    }
+
+    public boolean isNumeric() {
+        return numeric;
+    }
+
+    // Masks of the stored (non-empty) regions, in ascending order
+    public List<Integer> getRegionMasks() {
+        List<Integer> list = new ArrayList<>();
+        for (int mask : masks) {
+            list.add(mask);
+        }
+        return list;
+    }
+
+    public int getRegionSize(int mask) {
+        int r = Arrays.binarySearch(masks, mask);
+        return r < 0 ? 0 : starts[r + 1] - starts[r];
+    }
+
+    public ElementSet getRegion(int mask) {
+        return regionsWhere(m -> m == mask);
+    }
+
+    public ElementSet getSet(int index) {
+        return regionsWhere(m -> (m & (1 << index)) != 0);
+    }
+
+    public ElementSet getResult(String operation) {
+        return regionsWhere(m -> RegionIndex.inResult(operation, m, numSets));
+    }
+
+    private ElementSet regionsWhere(java.util.function.IntPredicate predicate) {
+        int[] selected = new int[masks.length];
+        int count = 0;
+        for (int r = 0; r < masks.length; r++) {
+            if (predicate.test(masks[r])) {
+                selected[count++] = r;
+            }
+        }
+        return new ElementSet(Arrays.copyOf(selected, count));
+    }
+
+    private String element(int id) {
+        if (numeric) {
+            return Long.toString(number(id));
+        }
+        int start = buffer.getInt(offsetsPosition + 4 * id);
+        int end = buffer.getInt(offsetsPosition + 4 * (id + 1));
+        byte[] bytes = new byte[end - start];
+        buffer.get(dataPosition + start, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private long number(int id) {
+        return buffer.getLong(dataPosition + 8 * id);
+    }
+
+    // Read-only view of some regions of the snapshot; elements are decoded on access.
+    // Membership tests need a hash set or bitmap, which is built on the first one.
+    public class ElementSet extends AbstractSet<String> {
+        private final int[] regions;
+        // Index of the first element of each selected region within this set, plus the size
+        private final int[] firsts;
+        private Set<String> materialized;
+
+        ElementSet(int[] regions) {
+            this.regions = regions;
+            this.firsts = new int[regions.length + 1];
+            for (int i = 0; i < regions.length; i++) {
+                firsts[i + 1] = firsts[i] + starts[regions[i] + 1] - starts[regions[i]];
+            }
+        }
+
+        @Override
+        public int size() {
+            return firsts[regions.length];
+        }
+
+        public String get(int index) {
+            int i = Arrays.binarySearch(firsts, index);
+            // Skip empty ranges that share the same first index
+            i = i >= 0 ? lastWithFirst(i) : -i - 2;
+            return element(starts[regions[i]] + index - firsts[i]);
+        }
+
+        private int lastWithFirst(int i) {
+            while (i + 1 < regions.length && firsts[i + 1] == firsts[i]) {
+                i++;
+            }
+            return i;
+        }
+
+        @Override
+        public boolean contains(Object element) {
+            return materialize().contains(element);
+        }
+
+        // Decoded copy: a NumericSet for numeric snapshots, otherwise a HashSet
+        public synchronized Set<String> materialize() {
+            if (materialized == null) {
+                if (numeric) {
+                    NumericSet numbers = new NumericSet();
+                    for (int r : regions) {
+                        for (int id = starts[r]; id < starts[r + 1]; id++) {
+                            numbers.add(number(id));
+                        }
+                    }
+                    materialized = numbers;
+                } else {
+                    Set<String> set = new HashSet<>(Math.max(16, (int) (size() / 0.75f) + 1));
+                    set.addAll(this);
+                    materialized = set;
+                }
+            }
+            return materialized;
+        }
+
+        @Override
+        public Iterator<String> iterator() {
+            return new Iterator<String>() {
+                private int index;
+
+                @Override
+                public boolean hasNext() {
+                    return index < size();
+                }
+
+                @Override
+                public String next() {
+                    if (!hasNext()) {
+                        throw new NoSuchElementException();
+                    }
+                    return get(index++);
+                }
+            };
+        }
+    }
+}
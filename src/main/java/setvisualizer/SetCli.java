@@ -0,0 +1,268 @@
+package setvisualizer;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+
+// Headless entry point: runs the visualizer's operations over files without
+// touching AWT/Swing, so it starts fast and can run on servers and in pipelines.
+//
+// Usage: java -cp target/classes setvisualizer.SetCli [options] FILE FILE...     (FILE may be - for stdin)
+//   -o, --operation union|intersection|difference|symmetric-difference   (default union)
+//   --out FILE|-        where the result goes, one element per line (default -)
+//   --regions FILE|-    also write the per-region cardinalities as JSON
+//   --no-result         skip the result, e.g. when only the regions are wanted
+//   -v, --verbose       timings on stderr
+//   --jobs FILE|-       run one job per line of FILE (same options as above) in this JVM
+//   --metrics FILE|-    when done, write per-stage timings and allocation as JSON
+public class SetCli {
+    // One parsed command line
+    static class Job {
+        String operation = "Union";
+        final List<String> inputs = new ArrayList<>();
+        String out = "-";
+        String regions;
+        boolean writeResult = true;
+        boolean verbose;
+        String jobs;
+        String metrics;
+
+        static Job parse(String[] args) {
+            Job job = new Job();
+            for (int i = 0; i < args.length; i++) {
+                String arg = args[i];
+                switch (arg) {
+                    case "-o":
+                    case "--operation":
+                        String name = value(args, ++i, arg).toLowerCase();
+                        job.operation = RegionIndex.OPERATION_NAMES.get(name);
+                        if (job.operation == null) {
+                            throw new IllegalArgumentException("Unknown operation: " + name
+                                    + " (expected one of " + String.join(", ", RegionIndex.OPERATION_NAMES.keySet()) + ")");
+                        }
+                        break;
+                    case "--out":
+                        job.out = value(args, ++i, arg);
+                        break;
+                    case "--regions":
+                        job.regions = value(args, ++i, arg);
+                        break;
+                    case "--no-result":
+                        job.writeResult = false;
+                        break;
+                    case "-v":
+                    case "--verbose":
+                        job.verbose = true;
+                        break;
+                    case "--jobs":
+                        job.jobs = value(args, ++i, arg);
+                        break;
+                    case "--metrics":
+                        job.metrics = value(args, ++i, arg);
+                        break;
+                    default:
+                        if (arg.startsWith("--")) {
+                            throw new IllegalArgumentException("Unknown option: " + arg);
+                        }
+                        job.inputs.add(arg);
+                }
+            }
+            if (job.jobs == null && job.inputs.isEmpty()) {
+                throw new IllegalArgumentException("No input files");
+            }
+            if (job.inputs.size() > RegionIndex.MAX_SETS) {
+                throw new IllegalArgumentException("At most " + RegionIndex.MAX_SETS + " input files are supported");
+            }
+            return job;
+        }
+
+        private static String value(String[] args, int index, String option) {
+            if (index >= args.length) {
+                throw new IllegalArgumentException("Missing value for " + option);
+            }
+            return args[index];
+        }
+    }
+
+    public static void main(String[] args) {
+        Job job;
+        try {
+            job = Job.parse(args);
+        } catch (IllegalArgumentException ex) {
+            System.err.println("error: " + ex.getMessage());
+            System.exit(2);
+            return;
+        }
+
+        int failures = 0;
+        try {
+            if (job.jobs != null) {
+                failures = runJobs(job.jobs, job.verbose);
+            } else {
+                run(job);
+            }
+        } catch (IOException | IllegalArgumentException ex) {
+            System.err.println("error: " + ex.getMessage());
+            failures++;
+        }
+        if (job.metrics != null) {
+            try (Writer writer = open(job.metrics)) {
+                writer.write(StageMetrics.GLOBAL.toJson());
+            } catch (IOException ex) {
+                System.err.println("error: " + ex.getMessage());
+                failures++;
+            }
+        }
+        System.exit(failures == 0 ? 0 : 1);
+    }
+
+    // Runs every job in the file, carrying on past failed ones; returns the number of failures
+    static int runJobs(String jobsFile, boolean verbose) throws IOException {
+        int failures = 0;
+        try (BufferedReader reader = jobsFile.equals("-")
+                ? new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8))
+                : Files.newBufferedReader(Paths.get(jobsFile), StandardCharsets.UTF_8)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                try {
+                    Job job = Job.parse(line.split("\\s+"));
+                    if (job.jobs != null || job.metrics != null) {
+                        throw new IllegalArgumentException("--jobs and --metrics only apply to the whole run");
+                    }
+                    job.verbose |= verbose;
+                    run(job);
+                } catch (IOException | IllegalArgumentException ex) {
+                    System.err.println("error: job on line " + lineNumber + ": " + ex.getMessage());
+                    failures++;
+                }
+            }
+        }
+        return failures;
+    }
+
+    static void run(Job job) throws IOException {
+        long started = System.nanoTime();
+        List<Set<String>> sets = new ArrayList<>();
+        long elements = 0;
+        try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("load")) {
+            for (String input : job.inputs) {
+                Set<String> set = load(input);
+                sets.add(set);
+                elements += set.size();
+            }
+            timer.setElements(elements);
+        }
+        long loaded = System.nanoTime();
+
+        RegionIndex index;
+        try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("regions")) {
+            index = new RegionIndex(sets);
+            timer.setElements(elements);
+        }
+        long indexed = System.nanoTime();
+
+        try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("output")) {
+            if (job.writeResult) {
+                try (Writer writer = open(job.out)) {
+                    writeResult(index, job.operation, writer);
+                }
+            }
+            if (job.regions != null) {
+                try (Writer writer = open(job.regions)) {
+                    writeRegionsJson(index, job, writer);
+                }
+            }
+            timer.setElements(index.getRegionMasks().size());
+        }
+
+        if (job.verbose) {
+            System.err.printf("%s of %s: load %.1f ms, regions %.1f ms, output %.1f ms%n",
+                    job.operation, String.join(" ", job.inputs), (loaded - started) / 1e6,
+                    (indexed - loaded) / 1e6, (System.nanoTime() - indexed) / 1e6);
+        }
+    }
+
+    private static Set<String> load(String input) throws IOException {
+        if (input.equals("-")) {
+            SetParser parser = new SetParser();
+            parser.parse(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+            return parser.toSet();
+        }
+        Path file = Paths.get(input);
+        if (!Files.isRegularFile(file)) {
+            throw new FileNotFoundException(input);
+        }
+        return MappedSetLoader.load(file).set;
+    }
+
+    // Stdout is flushed but left open so later jobs can keep writing to it
+    private static Writer open(String target) throws IOException {
+        if (target.equals("-")) {
+            return new BufferedWriter(new OutputStreamWriter(System.out, StandardCharsets.UTF_8), 1 << 16) {
+                @Override
+                public void close() throws IOException {
+                    flush();
+                }
+            };
+        }
+        return Files.newBufferedWriter(Paths.get(target), StandardCharsets.UTF_8);
+    }
+
+    // Regions are disjoint, so the result streams straight out of them without building a result set.
+    // Sorted regions are merged first (references only), so that output is in element order.
+    static void writeResult(RegionIndex index, String operation, Writer writer) throws IOException {
+        if (index.isSorted()) {
+            for (String element : index.result(operation)) {
+                writer.write(element);
+                writer.write('\n');
+            }
+            return;
+        }
+        for (int mask : index.getRegionMasks()) {
+            if (RegionIndex.inResult(operation, mask, index.getNumSets())) {
+                for (String element : index.getRegion(mask)) {
+                    writer.write(element);
+                    writer.write('\n');
+                }
+            }
+        }
+    }
+
+    static void writeRegionsJson(RegionIndex index, Job job, Writer writer) throws IOException {
+        long resultSize = 0;
+        for (int mask : index.getRegionMasks()) {
+            if (RegionIndex.inResult(job.operation, mask, index.getNumSets())) {
+                resultSize += index.getRegionSize(mask);
+            }
+        }
+
+        StringBuilder json = new StringBuilder();
+        json.append("{\"operation\":").append(Json.quote(job.operation));
+        json.append(",\"resultSize\":").append(resultSize);
+        json.append(",\"sets\":[");
+        for (int i = 0; i < index.getNumSets(); i++) {
+            json.append(i == 0 ? "" : ",")
+                    .append("{\"name\":\"").append((char) ('A' + i))
+                    .append("\",\"file\":").append(Json.quote(job.inputs.get(i)))
+                    .append(",\"size\":").append(index.getSet(i).size()).append('}');
+        }
+        json.append("],\"regions\":[");
+        boolean first = true;
+        for (int mask : index.getRegionMasks()) {
+            json.append(first ? "" : ",")
+                    .append("{\"mask\":").append(mask)
+                    .append(",\"name\":").append(Json.quote(RegionIndex.regionName(mask)))
+                    .append(",\"size\":").append(index.getRegionSize(mask)).append('}');
+            first = false;
+        }
+        json.append("]}\n");
+        writer.write(json.toString());
+    }
+}
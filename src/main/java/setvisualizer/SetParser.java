@@ -0,0 +1,288 @@
+package setvisualizer;
+
+import java.io.*;
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+// Single-pass tokenizer for set input.
+// Elements are separated by commas or line breaks and trimmed like String.trim().
+// Tokens are scanned in place and looked up in an open-addressing table keyed by
+// their characters, so a String is only created for the first occurrence of each
+// distinct element - no split() array, no per-token substring and trim copies.
+// As long as every element is a canonical integer no Strings are created at all:
+// the values go into a NumericSet, which is what toSet() then returns.
+// While the elements arrive in ascending order the table is not used either:
+// duplicates are then adjacent, so comparing with the last element is enough,
+// and toSet() returns the elements as a SortedStringSet.
+public class SetParser {
+    private static final int CANCEL_CHECK_INTERVAL = 0xFFFF;
+
+    private String[] table = new String[64];
+    private int[] hashes = new int[64]; // hash of each table entry, checked before comparing characters
+    private int shift = 32 - 6; // table index = top log2(table.length) bits of the mixed hash
+    private String[] elements = new String[16]; // distinct elements in first-seen order
+    private int size;
+    private int tokens;
+    private char[] scratch = new char[64];
+    private NumericSet numbers = new NumericSet(); // null once a non-numeric element was seen
+    private boolean sorted = true; // false once an element arrived out of order; the table is empty until then
+
+    public static Set<String> parseText(CharSequence text) {
+        SetParser parser = new SetParser();
+        parser.parse(text);
+        return parser.toSet();
+    }
+
+    // Adds every element of the text; the end of the text ends the last element
+    public void parse(CharSequence text) {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            if (isSeparator(text.charAt(i))) {
+                addToken(text, start, i);
+                start = i + 1;
+            }
+        }
+        addToken(text, start, length);
+    }
+
+    // Streams the reader through a fixed buffer, so the input never has to be in memory at once
+    public void parse(Reader reader) throws IOException {
+        char[] buffer = new char[64 * 1024];
+        CharSequence view = new CharArrayView(buffer);
+        int filled = 0;
+        int read;
+        while ((read = reader.read(buffer, filled, buffer.length - filled)) != -1) {
+            filled += read;
+            int start = 0;
+            for (int i = 0; i < filled; i++) {
+                if (isSeparator(buffer[i])) {
+                    addToken(view, start, i);
+                    start = i + 1;
+                }
+            }
+            // Keep the unfinished last token for the next read
+            filled -= start;
+            System.arraycopy(buffer, start, buffer, 0, filled);
+            if (filled == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+                view = new CharArrayView(buffer);
+            }
+        }
+        addToken(view, 0, filled);
+    }
+
+    static boolean isSeparator(char c) {
+        return c == ',' || c == '\n' || c == '\r';
+    }
+
+    private void addToken(CharSequence text, int start, int end) {
+        if ((++tokens & CANCEL_CHECK_INTERVAL) == 0 && Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+
+        // Trim in place
+        while (start < end && text.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && text.charAt(end - 1) <= ' ') {
+            end--;
+        }
+        if (start == end) {
+            return;
+        }
+
+        if (numbers != null) {
+            long value = NumericSet.parse(text, start, end);
+            if (value != NumericSet.NOT_NUMERIC) {
+                numbers.add(value);
+                return;
+            }
+            switchToStrings();
+        }
+
+        if (sorted) {
+            int order = size == 0 ? 1 : compare(text, start, end, elements[size - 1]);
+            if (order == 0) {
+                return;
+            }
+            if (order > 0) {
+                append(newString(text, start, end));
+                return;
+            }
+            switchToHashing();
+        }
+
+        int hash = 0;
+        for (int i = start; i < end; i++) {
+            hash = 31 * hash + text.charAt(i);
+        }
+
+        // Fibonacci hashing spreads the near-sequential hashes of IDs like "id1001", "id1002"
+        int mask = table.length - 1;
+        int slot = (hash * 0x9E3779B9) >>> shift;
+        String existing;
+        while ((existing = table[slot]) != null) {
+            if (hashes[slot] == hash && matches(existing, text, start, end)) {
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+
+        insert(newString(text, start, end), hash, slot);
+    }
+
+    private void insert(String element, int hash, int slot) {
+        table[slot] = element;
+        hashes[slot] = hash;
+        append(element);
+        if (size * 2 > table.length) {
+            resize(table.length * 2);
+        }
+    }
+
+    private void append(String element) {
+        if (size == elements.length) {
+            elements = Arrays.copyOf(elements, size * 2);
+        }
+        elements[size++] = element;
+    }
+
+    // Input turned out not to be all numbers: move the values seen so far into the string table.
+    // The bitmap does not keep their input order, so after any numbers the input counts as unsorted.
+    private void switchToStrings() {
+        NumericSet seen = numbers;
+        numbers = null;
+        if (seen.isEmpty()) {
+            return;
+        }
+        sorted = false;
+        seen.forEachLong(value -> {
+            String element = Long.toString(value);
+            int hash = element.hashCode();
+            int mask = table.length - 1;
+            int slot = (hash * 0x9E3779B9) >>> shift;
+            while (table[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            insert(element, hash, slot);
+        });
+    }
+
+    // An element arrived out of order: index the ones seen so far, in one table of the final size
+    private void switchToHashing() {
+        sorted = false;
+        int capacity = table.length;
+        while (size * 2 >= capacity) {
+            capacity *= 2;
+        }
+        resize(capacity);
+    }
+
+    // Sign of (the token).compareTo(existing)
+    private static int compare(CharSequence text, int start, int end, String existing) {
+        int length = Math.min(end - start, existing.length());
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(start + i);
+            char e = existing.charAt(i);
+            if (c != e) {
+                return c - e;
+            }
+        }
+        return (end - start) - existing.length();
+    }
+
+    private static boolean matches(String existing, CharSequence text, int start, int end) {
+        if (existing.length() != end - start) {
+            return false;
+        }
+        for (int i = start; i < end; i++) {
+            if (existing.charAt(i - start) != text.charAt(i)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private String newString(CharSequence text, int start, int end) {
+        if (text instanceof String) {
+            return ((String) text).substring(start, end);
+        }
+        int length = end - start;
+        if (scratch.length < length) {
+            scratch = new char[Math.max(length, scratch.length * 2)];
+        }
+        for (int i = 0; i < length; i++) {
+            scratch[i] = text.charAt(start + i);
+        }
+        return new String(scratch, 0, length);
+    }
+
+    private void resize(int capacity) {
+        String[] newTable = new String[capacity];
+        int[] newHashes = new int[capacity];
+        int mask = capacity - 1;
+        shift = Integer.numberOfLeadingZeros(capacity) + 1;
+        for (int i = 0; i < size; i++) {
+            int hash = elements[i].hashCode();
+            int slot = (hash * 0x9E3779B9) >>> shift;
+            while (newTable[slot] != null) {
+                slot = (slot + 1) & mask;
+            }
+            newTable[slot] = elements[i];
+            newHashes[slot] = hash;
+        }
+        table = newTable;
+        hashes = newHashes;
+    }
+
+    // Number of distinct elements seen so far
+    public int size() {
+        return numbers != null ? numbers.size() : size;
+    }
+
+    // A NumericSet if every element was a canonical integer, a SortedStringSet if
+    // the elements came in ascending order, otherwise a HashSet
+    public Set<String> toSet() {
+        if (numbers != null) {
+            return numbers;
+        }
+        if (sorted) {
+            return new SortedStringSet(Arrays.copyOf(elements, size), size);
+        }
+        Set<String> set = new HashSet<>(Math.max(16, (int) (size / 0.75f) + 1));
+        for (int i = 0; i < size; i++) {
+            set.add(elements[i]);
+        }
+        return set;
+    }
+
+    // CharSequence over a reusable char buffer, so the Reader path shares the tokenizer
+    private static class CharArrayView implements CharSequence {
+        private final char[] chars;
+
+        CharArrayView(char[] chars) {
+            this.chars = chars;
+        }
+
+        @Override
+        public int length() {
+            return chars.length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return chars[index];
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new String(chars, start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            return new String(chars);
+        }
+    }
+}
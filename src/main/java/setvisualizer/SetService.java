@@ -0,0 +1,261 @@
+package setvisualizer;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.*;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+import java.util.concurrent.*;
+
+// Local HTTP service around the set engine, on the JDK's built-in server.
+// Every request builds its own RegionIndex from its own body, so handlers share
+// nothing mutable apart from the latency histograms.
+//
+// Usage: java -cp target/classes setvisualizer.SetService [port]     (default 8080, loopback only)
+//
+//   POST /calculate?operation=union|intersection|difference|symmetric-difference[&result=false]
+//     application/json:  {"operation": "union", "sets": [["a", "b"], ["b", "c"]]}
+//     anything else:     one set per line, elements separated by commas
+//   -> {"operation":..., "resultSize":..., "sets":[...], "regions":[...], "result":[...]}
+//
+//   GET /metrics  -> per-endpoint latency histograms
+public class SetService {
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentSkipListMap<>();
+
+    public SetService(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        executor = newRequestExecutor();
+        server.setExecutor(executor);
+        server.createContext("/calculate", exchange -> handle(exchange, "POST", "calculate", this::calculate));
+        server.createContext("/metrics", exchange -> handle(exchange, "GET", "metrics", this::metrics));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : 8080;
+        SetService service = new SetService(port);
+        service.start();
+        System.err.println("Listening on http://localhost:" + service.getPort());
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public void stop() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    // One virtual thread per request where the JDK has them (21+), otherwise a
+    // bounded pool sized for mostly-small, short requests
+    private static ExecutorService newRequestExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException ex) {
+            int threads = Math.max(16, Runtime.getRuntime().availableProcessors() * 8);
+            return Executors.newFixedThreadPool(threads, runnable -> {
+                Thread thread = new Thread(runnable, "set-service");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+    }
+
+    private interface Route {
+        void respond(HttpExchange exchange) throws IOException;
+    }
+
+    private void handle(HttpExchange exchange, String method, String name, Route route) throws IOException {
+        long started = System.nanoTime();
+        try {
+            if (!exchange.getRequestMethod().equalsIgnoreCase(method)) {
+                exchange.getResponseHeaders().set("Allow", method);
+                sendError(exchange, 405, "Use " + method);
+                return;
+            }
+            route.respond(exchange);
+        } catch (IllegalArgumentException ex) {
+            sendError(exchange, 400, ex.getMessage());
+        } catch (RuntimeException ex) {
+            sendError(exchange, 500, String.valueOf(ex));
+        } finally {
+            exchange.close();
+            latencies.computeIfAbsent(name, key -> new LatencyHistogram()).record(System.nanoTime() - started);
+        }
+    }
+
+    private static void sendError(HttpExchange exchange, int status, String message) {
+        try {
+            byte[] body = ("{\"error\":" + Json.quote(String.valueOf(message)) + "}\n").getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+            exchange.sendResponseHeaders(status, body.length);
+            exchange.getResponseBody().write(body);
+        } catch (IOException ex) {
+            // Client went away or headers were already sent; nothing left to tell it
+        } finally {
+            exchange.close();
+        }
+    }
+
+    private void calculate(HttpExchange exchange) throws IOException {
+        Map<String, String> query = parseQuery(exchange.getRequestURI().getRawQuery());
+        String body = new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8);
+        String contentType = exchange.getRequestHeaders().getFirst("Content-Type");
+
+        String operationName = query.get("operation");
+        List<Set<String>> sets;
+        if (contentType != null && contentType.startsWith("application/json")) {
+            Object parsed = Json.parse(body);
+            if (!(parsed instanceof Map)) {
+                throw new IllegalArgumentException("Expected a JSON object with a \"sets\" array");
+            }
+            Map<?, ?> request = (Map<?, ?>) parsed;
+            if (operationName == null && request.get("operation") instanceof String) {
+                operationName = (String) request.get("operation");
+            }
+            sets = jsonSets(request.get("sets"));
+        } else {
+            sets = new ArrayList<>();
+            for (String line : body.split("\r?\n")) {
+                sets.add(SetParser.parseText(line));
+            }
+        }
+        if (sets.isEmpty() || sets.size() > RegionIndex.MAX_SETS) {
+            throw new IllegalArgumentException("Expected between 1 and " + RegionIndex.MAX_SETS + " sets");
+        }
+        String operation = RegionIndex.OPERATION_NAMES.get(operationName == null ? "union" : operationName.toLowerCase());
+        if (operation == null) {
+            throw new IllegalArgumentException("Unknown operation: " + operationName);
+        }
+
+        RegionIndex index = new RegionIndex(sets);
+        writeResponse(exchange, index, operation, !"false".equals(query.get("result")));
+    }
+
+    private static List<Set<String>> jsonSets(Object value) {
+        if (!(value instanceof List)) {
+            throw new IllegalArgumentException("\"sets\" must be an array of arrays");
+        }
+        List<Set<String>> sets = new ArrayList<>();
+        for (Object elements : (List<?>) value) {
+            if (!(elements instanceof List)) {
+                throw new IllegalArgumentException("\"sets\" must be an array of arrays");
+            }
+            sets.add(toSet((List<?>) elements));
+        }
+        return sets;
+    }
+
+    // Same representation the parser would pick: a bitmap while every element is a canonical integer
+    private static Set<String> toSet(List<?> elements) {
+        NumericSet numbers = new NumericSet();
+        for (int i = 0; i < elements.size(); i++) {
+            String element = String.valueOf(elements.get(i));
+            long number = NumericSet.parse(element, 0, element.length());
+            if (number == NumericSet.NOT_NUMERIC) {
+                Set<String> set = new HashSet<>(numbers);
+                for (int j = i; j < elements.size(); j++) {
+                    set.add(String.valueOf(elements.get(j)));
+                }
+                return set;
+            }
+            numbers.add(number);
+        }
+        return numbers;
+    }
+
+    // Streams the response; regions are disjoint, so the result is written straight out of them
+    private static void writeResponse(HttpExchange exchange, RegionIndex index, String operation,
+                                      boolean includeResult) throws IOException {
+        long resultSize = 0;
+        StringBuilder json = new StringBuilder();
+        json.append("\"regions\":[");
+        boolean first = true;
+        for (int mask : index.getRegionMasks()) {
+            if (RegionIndex.inResult(operation, mask, index.getNumSets())) {
+                resultSize += index.getRegionSize(mask);
+            }
+            json.append(first ? "" : ",")
+                    .append("{\"mask\":").append(mask)
+                    .append(",\"name\":").append(Json.quote(RegionIndex.regionName(mask)))
+                    .append(",\"size\":").append(index.getRegionSize(mask)).append('}');
+            first = false;
+        }
+        json.append(']');
+
+        StringBuilder head = new StringBuilder();
+        head.append("{\"operation\":").append(Json.quote(operation))
+                .append(",\"resultSize\":").append(resultSize)
+                .append(",\"sets\":[");
+        for (int i = 0; i < index.getNumSets(); i++) {
+            head.append(i == 0 ? "" : ",").append(index.getSet(i).size());
+        }
+        head.append("],").append(json);
+
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, 0);
+        try (Writer writer = new BufferedWriter(new OutputStreamWriter(exchange.getResponseBody(), StandardCharsets.UTF_8))) {
+            writer.write(head.toString());
+            if (includeResult) {
+                writer.write(",\"result\":[");
+                StringBuilder element = new StringBuilder();
+                first = true;
+                for (int mask : index.getRegionMasks()) {
+                    if (!RegionIndex.inResult(operation, mask, index.getNumSets())) {
+                        continue;
+                    }
+                    for (String value : index.getRegion(mask)) {
+                        element.setLength(0);
+                        if (!first) {
+                            element.append(',');
+                        }
+                        Json.appendQuoted(element, value);
+                        writer.append(element);
+                        first = false;
+                    }
+                }
+                writer.write(']');
+            }
+            writer.write("}\n");
+        }
+    }
+
+    private void metrics(HttpExchange exchange) throws IOException {
+        StringBuilder json = new StringBuilder("{");
+        for (Map.Entry<String, LatencyHistogram> entry : latencies.entrySet()) {
+            if (json.length() > 1) {
+                json.append(',');
+            }
+            json.append(Json.quote(entry.getKey())).append(':');
+            entry.getValue().appendJson(json);
+        }
+        byte[] body = json.append("}\n").toString().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(200, body.length);
+        exchange.getResponseBody().write(body);
+    }
+
+    private static Map<String, String> parseQuery(String rawQuery) {
+        Map<String, String> query = new HashMap<>();
+        if (rawQuery == null || rawQuery.isEmpty()) {
+            return query;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            String key = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            query.put(URLDecoder.decode(key, StandardCharsets.UTF_8), URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+        return query;
+    }
+}
@@ -0,0 +1,993 @@
+package setvisualizer;
+
+import javax.swing.*;
+import javax.swing.event.*;
+import java.awt.*;
+import java.awt.event.*;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.util.*;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.IntFunction;
+import java.util.function.IntUnaryOperator;
+
+public class SetVisualizer extends JFrame {
+    private JPanel mainPanel, inputPanel, diagramPanel, resultPanel;
+    private JLabel titleLabel, numSetsLabel, operationLabel;
+    private JComboBox<Integer> numSetsComboBox;
+    private JComboBox<String> operationComboBox;
+    private JButton calculateButton, cancelButton;
+    private JProgressBar progressBar;
+    // Cardinalities of the last calculation; the elements themselves go in resultList
+    private JTextArea resultArea;
+    private JList<String> resultList;
+    private ResultListModel resultModel;
+    private JButton exportButton;
+    // Sessions are saved from the region index the shown result was calculated with
+    private JButton saveButton;
+    private JButton openButton;
+    private ResultCache.Key resultKey;
+    private JButton metricsButton;
+    private JDialog metricsDialog;
+    private List<JTextField> setFields;
+    private List<JButton> loadButtons;
+    private JLabel loadStatsLabel;
+    // Set loaded from a file for each field (null = parse the field's text)
+    private List<Set<String>> loadedSets;
+    // Sketch of a file loaded while in approximate mode, instead of its set
+    private List<HyperLogLog> loadedSketches;
+    private Map<Integer, String> loadStats;
+    private String currentOperation;
+
+    private final VennRenderer vennRenderer = new VennRenderer();
+    // Region sizes and label lines, laid out once per calculation (read-only)
+    private VennRenderer.Diagram diagram;
+    // Zoom and pan of the diagram, applied on top of its layout
+    private final AffineTransform diagramView = new AffineTransform();
+    // Rendered diagram; redrawn only when the data, the view or the panel size changes
+    private BufferedImage diagramCache;
+    private boolean diagramDirty = true;
+    
+    // Calculations run one at a time off the EDT; only the latest one is published
+    private final ExecutorService calculationExecutor = Executors.newSingleThreadExecutor(r -> {
+        Thread thread = new Thread(r, "set-calculation");
+        thread.setDaemon(true);
+        return thread;
+    });
+    private CalculationWorker calculationWorker;
+    
+    // Engine state kept between runs so an edit only applies its delta. Only ever
+    // touched on the calculation thread; the EDT sees finished snapshots.
+    private RegionIndex liveIndex;
+    private ResultCache.Key liveKey;
+    private final List<ParsedField> parsedFields = new ArrayList<>();
+    // Region indexes of earlier inputs, so e.g. switching the operation is a lookup
+    private final ResultCache resultCache = new ResultCache(Runtime.getRuntime().maxMemory() / 4);
+    
+    // Live mode recalculates shortly after the user stops typing
+    private JCheckBox liveModeCheckBox;
+    private javax.swing.Timer liveTimer;
+    // Approximate mode estimates sizes from fixed-size sketches instead of building sets
+    private JCheckBox approximateCheckBox;
+    
+    // Regions beyond this many are summarized as "..." in the result panel
+    private static final int MAX_LISTED_REGIONS = 20;
+    private static final double MIN_ZOOM = 0.25;
+    private static final double MAX_ZOOM = 20;
+    
+    public SetVisualizer() {
+        setTitle("Set Operations Visualizer with Venn Diagrams");
+        setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+        setSize(1000, 1000);
+        setLocationRelativeTo(null);
+        
+        // Initialize components
+        mainPanel = new JPanel(new BorderLayout(10, 10));
+        mainPanel.setBorder(BorderFactory.createEmptyBorder(10, 10, 10, 10));
+        
+        inputPanel = new JPanel(new GridBagLayout());
+        inputPanel.setBorder(BorderFactory.createTitledBorder("Input"));
+        
+        diagramPanel = new JPanel() {
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                paintCachedDiagram((Graphics2D) g);
+            }
+        };
+        diagramPanel.setPreferredSize(new Dimension(1000, 300)); // Further increased width and height for full Venn diagram visibility
+        diagramPanel.setBorder(BorderFactory.createTitledBorder("Venn Diagram"));
+        
+        // Wheel zooms around the pointer, dragging pans, double-click resets the view
+        MouseAdapter diagramNavigation = new MouseAdapter() {
+            private Point dragFrom;
+            
+            @Override
+            public void mouseWheelMoved(MouseWheelEvent e) {
+                double scale = diagramView.getScaleX();
+                double factor = Math.max(MIN_ZOOM, Math.min(MAX_ZOOM, scale * Math.pow(1.1, -e.getPreciseWheelRotation()))) / scale;
+                AffineTransform zoom = AffineTransform.getTranslateInstance(e.getX(), e.getY());
+                zoom.scale(factor, factor);
+                zoom.translate(-e.getX(), -e.getY());
+                diagramView.preConcatenate(zoom);
+                invalidateDiagram();
+            }
+            
+            @Override
+            public void mousePressed(MouseEvent e) {
+                dragFrom = e.getPoint();
+            }
+            
+            @Override
+            public void mouseDragged(MouseEvent e) {
+                diagramView.preConcatenate(AffineTransform.getTranslateInstance(e.getX() - dragFrom.x, e.getY() - dragFrom.y));
+                dragFrom = e.getPoint();
+                invalidateDiagram();
+            }
+            
+            @Override
+            public void mouseClicked(MouseEvent e) {
+                if (e.getClickCount() == 2) {
+                    diagramView.setToIdentity();
+                    invalidateDiagram();
+                }
+            }
+        };
+        diagramPanel.addMouseListener(diagramNavigation);
+        diagramPanel.addMouseMotionListener(diagramNavigation);
+        diagramPanel.addMouseWheelListener(diagramNavigation);
+        
+        resultPanel = new JPanel(new BorderLayout());
+        resultPanel.setBorder(BorderFactory.createTitledBorder("Result"));
+        
+        titleLabel = new JLabel("Set Operations Visualizer", JLabel.CENTER);
+        titleLabel.setFont(new Font("Arial", Font.BOLD, 18));
+        
+        numSetsLabel = new JLabel("Number of Sets:");
+        operationLabel = new JLabel("Operation:");
+        
+        Integer[] setOptions = new Integer[RegionIndex.MAX_SETS - 1];
+        for (int i = 0; i < setOptions.length; i++) {
+            setOptions[i] = i + 2;
+        }
+        numSetsComboBox = new JComboBox<>(setOptions);
+        numSetsComboBox.addActionListener(e -> updateSetInputs());
+        
+        String[] operations = {"Union", "Intersection", "Difference", "Symmetric Difference"};
+        operationComboBox = new JComboBox<>(operations);
+        operationComboBox.addActionListener(e -> scheduleLiveCalculation());
+        
+        liveModeCheckBox = new JCheckBox("Live update");
+        liveModeCheckBox.addActionListener(e -> scheduleLiveCalculation());
+        liveTimer = new javax.swing.Timer(300, e -> calculateResult());
+        liveTimer.setRepeats(false);
+        
+        approximateCheckBox = new JCheckBox("Approximate");
+        approximateCheckBox.setToolTipText("Estimate region and result sizes with HyperLogLog sketches; no elements are listed");
+        approximateCheckBox.addActionListener(e -> scheduleLiveCalculation());
+        
+        calculateButton = new JButton("Calculate");
+        calculateButton.addActionListener(e -> calculateResult());
+        
+        cancelButton = new JButton("Cancel");
+        cancelButton.setEnabled(false);
+        cancelButton.addActionListener(e -> cancelCalculation());
+        
+        progressBar = new JProgressBar(0, 100);
+        progressBar.setStringPainted(true);
+        progressBar.setVisible(false);
+        
+        resultArea = new JTextArea(4, 40);
+        resultArea.setEditable(false);
+        resultArea.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        
+        // Fixed cell size lets the list lay out without measuring every element
+        resultList = new JList<>();
+        resultList.setFont(new Font("Monospaced", Font.PLAIN, 14));
+        resultList.setFixedCellHeight(18);
+        resultList.setFixedCellWidth(400);
+        resultList.setVisibleRowCount(8);
+        JScrollPane scrollPane = new JScrollPane(resultList);
+        
+        exportButton = new JButton("Export result...");
+        exportButton.setEnabled(false);
+        exportButton.addActionListener(e -> exportResult());
+        
+        saveButton = new JButton("Save session...");
+        saveButton.setEnabled(false);
+        saveButton.addActionListener(e -> saveSession());
+        
+        openButton = new JButton("Open session...");
+        openButton.addActionListener(e -> openSession());
+        
+        metricsButton = new JButton("Metrics...");
+        metricsButton.addActionListener(e -> showMetrics());
+        
+        loadStatsLabel = new JLabel();
+        
+        setFields = new ArrayList<>();
+        loadButtons = new ArrayList<>();
+        loadedSets = new ArrayList<>();
+        loadedSketches = new ArrayList<>();
+        loadStats = new TreeMap<>();
+        currentOperation = "Union";
+        
+        // Layout components
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        
+        gbc.gridx = 0; gbc.gridy = 0;
+        inputPanel.add(numSetsLabel, gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 0;
+        inputPanel.add(numSetsComboBox, gbc);
+        
+        gbc.gridx = 0; gbc.gridy = 1;
+        inputPanel.add(operationLabel, gbc);
+        
+        gbc.gridx = 1; gbc.gridy = 1;
+        inputPanel.add(operationComboBox, gbc);
+        
+        JPanel buttonPanel = new JPanel(new FlowLayout());
+        buttonPanel.add(calculateButton);
+        buttonPanel.add(cancelButton);
+        buttonPanel.add(progressBar);
+        buttonPanel.add(liveModeCheckBox);
+        buttonPanel.add(approximateCheckBox);
+        
+        mainPanel.add(titleLabel, BorderLayout.NORTH);
+        mainPanel.add(inputPanel, BorderLayout.CENTER);
+        mainPanel.add(buttonPanel, BorderLayout.SOUTH);
+        
+        add(mainPanel, BorderLayout.NORTH);
+        add(diagramPanel, BorderLayout.CENTER);
+        add(resultPanel, BorderLayout.SOUTH);
+        
+        JPanel summaryPanel = new JPanel(new BorderLayout());
+        summaryPanel.add(loadStatsLabel, BorderLayout.NORTH);
+        summaryPanel.add(new JScrollPane(resultArea), BorderLayout.CENTER);
+        
+        JPanel exportPanel = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        exportPanel.add(metricsButton);
+        exportPanel.add(openButton);
+        exportPanel.add(saveButton);
+        exportPanel.add(exportButton);
+        
+        resultPanel.add(summaryPanel, BorderLayout.NORTH);
+        resultPanel.add(scrollPane, BorderLayout.CENTER);
+        resultPanel.add(exportPanel, BorderLayout.SOUTH);
+        
+        // Initialize set inputs
+        updateSetInputs();
+    }
+    
+    private void updateSetInputs() {
+        // Remove existing set input fields
+        for (Component comp : inputPanel.getComponents()) {
+            if (comp instanceof JLabel && ((JLabel)comp).getText().startsWith("Set")) {
+                inputPanel.remove(comp);
+            }
+        }
+        
+        for (JTextField field : setFields) {
+            inputPanel.remove(field);
+        }
+        setFields.clear();
+        
+        for (JButton button : loadButtons) {
+            inputPanel.remove(button);
+        }
+        loadButtons.clear();
+        loadedSets.clear();
+        loadedSketches.clear();
+        loadStats.clear();
+        updateLoadStats();
+        
+        int numSets = (Integer) numSetsComboBox.getSelectedItem();
+        GridBagConstraints gbc = new GridBagConstraints();
+        gbc.insets = new Insets(5, 5, 5, 5);
+        gbc.fill = GridBagConstraints.HORIZONTAL;
+        
+        for (int i = 0; i < numSets; i++) {
+            char setName = (char) ('A' + i);
+            JLabel setLabel = new JLabel("Set " + setName + " (comma separated):");
+            JTextField setField = new JTextField(20);
+            setField.getDocument().addDocumentListener(new DocumentListener() {
+                @Override
+                public void insertUpdate(DocumentEvent e) {
+                    scheduleLiveCalculation();
+                }
+                
+                @Override
+                public void removeUpdate(DocumentEvent e) {
+                    scheduleLiveCalculation();
+                }
+                
+                @Override
+                public void changedUpdate(DocumentEvent e) {
+                }
+            });
+            
+            gbc.gridx = 0; gbc.gridy = i + 2;
+            inputPanel.add(setLabel, gbc);
+            
+            gbc.gridx = 1; gbc.gridy = i + 2;
+            inputPanel.add(setField, gbc);
+            
+            JButton loadButton = new JButton("Load from file...");
+            loadButton.addActionListener(e -> toggleLoadedFile(loadButton));
+            
+            gbc.gridx = 2; gbc.gridy = i + 2;
+            inputPanel.add(loadButton, gbc);
+            
+            setFields.add(setField);
+            loadButtons.add(loadButton);
+            loadedSets.add(null);
+            loadedSketches.add(null);
+        }
+        
+        // Refresh the UI
+        inputPanel.revalidate();
+        inputPanel.repaint();
+        diagramView.setToIdentity();
+        invalidateDiagram();
+    }
+    
+    private void calculateResult() {
+        int numSets = (Integer) numSetsComboBox.getSelectedItem();
+        String operation = (String) operationComboBox.getSelectedItem();
+        
+        // Swing components may only be read on the EDT, so take the field texts here
+        List<String> texts = new ArrayList<>();
+        for (int i = 0; i < numSets; i++) {
+            texts.add(setFields.get(i).getText());
+        }
+        
+        // A newer Calculate supersedes any run still in progress
+        if (calculationWorker != null) {
+            calculationWorker.cancel(true);
+        }
+        calculationWorker = new CalculationWorker(texts, new ArrayList<>(loadedSets), new ArrayList<>(loadedSketches),
+                                                  operation, approximateCheckBox.isSelected());
+        calculationWorker.addPropertyChangeListener(e -> {
+            if ("progress".equals(e.getPropertyName())) {
+                progressBar.setValue((Integer) e.getNewValue());
+            }
+        });
+        
+        progressBar.setValue(0);
+        progressBar.setVisible(true);
+        cancelButton.setEnabled(true);
+        calculationExecutor.execute(calculationWorker);
+    }
+    
+    // Loads the set for a field from a file, or goes back to typed input if one is loaded
+    private void toggleLoadedFile(JButton loadButton) {
+        int index = loadButtons.indexOf(loadButton);
+        JTextField field = setFields.get(index);
+        
+        if (loadedSets.get(index) != null || loadedSketches.get(index) != null) {
+            loadedSets.set(index, null);
+            loadedSketches.set(index, null);
+            loadStats.remove(index);
+            updateLoadStats();
+            field.setText("");
+            field.setToolTipText(null);
+            field.setEditable(true);
+            loadButton.setText("Load from file...");
+            return;
+        }
+        
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        char setName = (char) ('A' + index);
+        boolean approximate = approximateCheckBox.isSelected();
+        
+        loadButton.setEnabled(false);
+        field.setEditable(false);
+        field.setText("Loading " + file.getName() + "...");
+        
+        new SwingWorker<MappedSetLoader.LoadResult, Void>() {
+            @Override
+            protected MappedSetLoader.LoadResult doInBackground() throws Exception {
+                try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start(approximate ? "load sketch" : "load")) {
+                    MappedSetLoader.LoadResult load = approximate ? MappedSetLoader.sketch(file.toPath()) : MappedSetLoader.load(file.toPath());
+                    timer.setElements(load.set != null ? load.set.size() : (long) load.sketch.estimate());
+                    return load;
+                }
+            }
+            
+            @Override
+            protected void done() {
+                // The inputs were rebuilt while loading
+                if (loadButtons.indexOf(loadButton) != index) {
+                    return;
+                }
+                loadButton.setEnabled(true);
+                try {
+                    MappedSetLoader.LoadResult load = get();
+                    loadedSets.set(index, load.set);
+                    loadedSketches.set(index, load.sketch);
+                    String elements = load.set != null ? String.format("%,d elements", load.set.size())
+                            : String.format("≈ %,.0f elements (sketch only)", load.sketch.estimate());
+                    loadStats.put(index, String.format("Set %c: %s - %s, %.1f MB in %.2f s (%.1f MB/s)",
+                            setName, file.getName(), elements, load.bytes / 1_000_000.0,
+                            load.nanos / 1_000_000_000.0, load.megabytesPerSecond()));
+                    updateLoadStats();
+                    field.setText(file.getName());
+                    field.setToolTipText(file.getPath());
+                    loadButton.setText("Unload file");
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    field.setText("");
+                    field.setEditable(true);
+                    JOptionPane.showMessageDialog(SetVisualizer.this, "Could not load " + file + ": " + ex.getCause().getMessage(), 
+                                                 "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+    
+    private void updateLoadStats() {
+        if (loadStats.isEmpty()) {
+            loadStatsLabel.setText("");
+        } else {
+            loadStatsLabel.setText("<html>" + String.join("<br>", loadStats.values()) + "</html>");
+        }
+    }
+    
+    private void exportResult() {
+        ResultListModel model = resultModel;
+        JFileChooser chooser = new JFileChooser();
+        if (model == null || chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        
+        exportButton.setEnabled(false);
+        new SwingWorker<Void, Void>() {
+            @Override
+            protected Void doInBackground() throws Exception {
+                model.export(file.toPath());
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                exportButton.setEnabled(resultModel != null);
+                try {
+                    get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(SetVisualizer.this, "Could not export to " + file + ": " + ex.getCause().getMessage(), 
+                                                 "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        }.execute();
+    }
+    
+    // One non-modal window, so it can stay open beside the diagram while calculating
+    private void showMetrics() {
+        if (metricsDialog == null) {
+            metricsDialog = new JDialog(this, "Stage metrics", false);
+            metricsDialog.add(new MetricsPanel(StageMetrics.GLOBAL));
+            metricsDialog.pack();
+            metricsDialog.setLocationRelativeTo(this);
+        }
+        metricsDialog.setVisible(true);
+        metricsDialog.toFront();
+    }
+    
+    // Writes the current calculation's regions to a session file, chosen on the EDT
+    private void saveSession() {
+        ResultCache.Key key = resultKey;
+        String operation = currentOperation;
+        JFileChooser chooser = new JFileChooser();
+        if (key == null || chooser.showSaveDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        
+        saveButton.setEnabled(false);
+        calculationExecutor.execute(new SwingWorker<Void, Void>() {
+            // Runs on the calculation thread, the only one that may read the engine state
+            @Override
+            protected Void doInBackground() throws Exception {
+                RegionIndex index = key.equals(liveKey) ? liveIndex : resultCache.peek(key);
+                if (index == null) {
+                    throw new IllegalStateException("the inputs changed since the last calculation; calculate again first");
+                }
+                try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("save session")) {
+                    SessionSnapshot.save(file.toPath(), index, operation);
+                    timer.setElements(index.getRegionMasks().stream().mapToLong(index::getRegionSize).sum());
+                }
+                return null;
+            }
+            
+            @Override
+            protected void done() {
+                saveButton.setEnabled(resultKey != null);
+                try {
+                    get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(SetVisualizer.this, "Could not save to " + file + ": " + ex.getCause().getMessage(), 
+                                                 "Error", JOptionPane.ERROR_MESSAGE);
+                }
+            }
+        });
+    }
+    
+    // Shows a saved session straight from the mapped file; its sets are loaded into
+    // the fields like files, and only decoded when they are calculated with again
+    private void openSession() {
+        JFileChooser chooser = new JFileChooser();
+        if (chooser.showOpenDialog(this) != JFileChooser.APPROVE_OPTION) {
+            return;
+        }
+        File file = chooser.getSelectedFile();
+        cancelCalculation();
+        liveTimer.stop();
+        
+        openButton.setEnabled(false);
+        calculationExecutor.execute(new SwingWorker<CalculationResult, Void>() {
+            private SessionSnapshot snapshot;
+            
+            @Override
+            protected CalculationResult doInBackground() throws Exception {
+                long started = System.nanoTime();
+                try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("open session")) {
+                    snapshot = SessionSnapshot.open(file.toPath());
+                    timer.setElements(snapshot.getResult("Union").size());
+                }
+                String operation = snapshot.getOperation();
+                List<Set<String>> snapshotSets = new ArrayList<>();
+                for (int i = 0; i < snapshot.getNumSets(); i++) {
+                    snapshotSets.add(snapshot.getSet(i));
+                }
+                Set<String> result = snapshot.getResult(operation);
+                String summary = describeResult(operation, snapshotSets, snapshot.getRegionMasks(), snapshot::getRegionSize, result.size())
+                        + String.format("%nOpened %s in %.1f ms", file.getName(), (System.nanoTime() - started) / 1e6);
+                return new CalculationResult(operation, snapshotSets, new ResultListModel(result), summary,
+                                             layoutDiagram(snapshot.getNumSets(), snapshot.getRegionMasks(), snapshot::getRegion), null);
+            }
+            
+            @Override
+            protected void done() {
+                openButton.setEnabled(true);
+                CalculationResult calculation;
+                try {
+                    calculation = get();
+                } catch (InterruptedException ex) {
+                    Thread.currentThread().interrupt();
+                    return;
+                } catch (ExecutionException ex) {
+                    JOptionPane.showMessageDialog(SetVisualizer.this, "Could not open " + file + ": " + ex.getCause().getMessage(), 
+                                                 "Error", JOptionPane.ERROR_MESSAGE);
+                    return;
+                }
+                
+                if (numSetsComboBox.getSelectedItem().equals(snapshot.getNumSets())) {
+                    updateSetInputs();
+                } else {
+                    numSetsComboBox.setSelectedItem(snapshot.getNumSets());
+                }
+                operationComboBox.setSelectedItem(calculation.operation);
+                for (int i = 0; i < snapshot.getNumSets(); i++) {
+                    char setName = (char) ('A' + i);
+                    JTextField field = setFields.get(i);
+                    loadedSets.set(i, calculation.sets.get(i));
+                    loadStats.put(i, String.format("Set %c: %s - %,d elements (session snapshot)",
+                            setName, file.getName(), calculation.sets.get(i).size()));
+                    field.setText(file.getName() + " [" + setName + "]");
+                    field.setToolTipText(file.getPath());
+                    field.setEditable(false);
+                    loadButtons.get(i).setText("Unload file");
+                }
+                updateLoadStats();
+                publishResult(calculation);
+            }
+        });
+    }
+    
+    // Debounced: every edit restarts the timer, so only the last one calculates
+    private void scheduleLiveCalculation() {
+        if (liveModeCheckBox.isSelected()) {
+            liveTimer.restart();
+        }
+    }
+    
+    private void cancelCalculation() {
+        if (calculationWorker != null) {
+            calculationWorker.cancel(true);
+            calculationWorker = null;
+        }
+        progressBar.setVisible(false);
+        cancelButton.setEnabled(false);
+    }
+    
+    // Parsed set of one input field, reused while its text or loaded file is unchanged
+    private static class ParsedField {
+        final String text;
+        final Set<String> loaded;
+        final Set<String> set;
+        final long[] hash;
+        
+        ParsedField(String text, Set<String> loaded, Set<String> set, long[] hash) {
+            this.text = text;
+            this.loaded = loaded;
+            this.set = set;
+            this.hash = hash;
+        }
+        
+        boolean matches(String text, Set<String> loaded) {
+            return loaded != null ? loaded == this.loaded : this.loaded == null && text.equals(this.text);
+        }
+    }
+    
+    // Finished, immutable output of one Calculate run
+    private static class CalculationResult {
+        final String operation;
+        final List<Set<String>> sets;
+        final ResultListModel resultModel; // null for approximate runs, which have no elements
+        final String summary;
+        final VennRenderer.Diagram diagram;
+        final ResultCache.Key key; // inputs of the region index, null if there is none to save
+        
+        CalculationResult(String operation, List<Set<String>> sets, ResultListModel resultModel, String summary,
+                          VennRenderer.Diagram diagram, ResultCache.Key key) {
+            this.operation = operation;
+            this.sets = sets;
+            this.resultModel = resultModel;
+            this.summary = summary;
+            this.diagram = diagram;
+            this.key = key;
+        }
+    }
+    
+    // Parses the inputs and computes regions and result off the EDT. Only the
+    // most recently started worker publishes; stale or cancelled runs are dropped.
+    private class CalculationWorker extends SwingWorker<CalculationResult, Void> {
+        private final List<String> texts;
+        private final List<Set<String>> loaded;
+        private final List<HyperLogLog> loadedSketches;
+        private final String operation;
+        private final boolean approximate;
+        
+        CalculationWorker(List<String> texts, List<Set<String>> loaded, List<HyperLogLog> loadedSketches,
+                          String operation, boolean approximate) {
+            this.texts = texts;
+            this.loaded = loaded;
+            this.loadedSketches = loadedSketches;
+            this.operation = operation;
+            this.approximate = approximate;
+        }
+        
+        @Override
+        protected CalculationResult doInBackground() {
+            int numSets = texts.size();
+            if (approximate) {
+                return calculateApproximate();
+            }
+            for (int i = 0; i < numSets; i++) {
+                if (loadedSketches.get(i) != null) {
+                    throw new IllegalStateException("Set " + (char) ('A' + i) + " was loaded as a sketch; "
+                            + "unload it and load it again with Approximate off for exact results");
+                }
+            }
+            
+            // Parse the sets; a field whose text or loaded file is unchanged is never reparsed
+            List<Set<String>> parsedSets = new ArrayList<>();
+            List<long[]> hashes = new ArrayList<>();
+            long inputElements = 0;
+            try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("parse")) {
+                for (int i = 0; i < numSets; i++) {
+                    checkCancelled();
+                    ParsedField field = i < parsedFields.size() ? parsedFields.get(i) : null;
+                    if (field == null || !field.matches(texts.get(i), loaded.get(i))) {
+                        Set<String> set = loaded.get(i) != null ? loaded.get(i) : SetParser.parseText(texts.get(i));
+                        if (set instanceof SessionSnapshot.ElementSet) {
+                            // Sets opened from a snapshot are only decoded once they are calculated with
+                            set = ((SessionSnapshot.ElementSet) set).materialize();
+                        }
+                        field = new ParsedField(texts.get(i), loaded.get(i), set, ResultCache.contentHash(set));
+                        if (i < parsedFields.size()) {
+                            parsedFields.set(i, field);
+                        } else {
+                            parsedFields.add(field);
+                        }
+                    }
+                    parsedSets.add(field.set);
+                    hashes.add(field.hash);
+                    inputElements += field.set.size();
+                    setProgress(50 * (i + 1) / numSets);
+                }
+                timer.setElements(inputElements);
+            }
+            
+            // Reuse the regions of earlier identical inputs; otherwise move just the
+            // changed elements of the last index, or build a new one
+            checkCancelled();
+            ResultCache.Key key = new ResultCache.Key(hashes);
+            boolean cacheHit;
+            RegionIndex regions;
+            try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("regions")) {
+                RegionIndex cached = resultCache.get(key);
+                cacheHit = cached != null;
+                if (cacheHit) {
+                    regions = cached;
+                } else {
+                    RegionIndex previous = liveIndex != null && liveIndex.getNumSets() == numSets ? liveIndex : null;
+                    if (previous == null) {
+                        regions = new RegionIndex(parsedSets);
+                    } else {
+                        // Changed in place, so it no longer belongs under its old key; and it is
+                        // unreachable until every set is swapped in, in case this is cancelled
+                        resultCache.remove(liveKey);
+                        liveIndex = null;
+                        liveKey = null;
+                        for (int i = 0; i < numSets; i++) {
+                            if (parsedSets.get(i) != previous.getSet(i)) {
+                                previous.replaceSet(i, parsedSets.get(i));
+                            }
+                        }
+                        regions = previous;
+                    }
+                    resultCache.put(key, regions);
+                }
+                timer.setElements(inputElements);
+            }
+            liveIndex = regions;
+            liveKey = key;
+            setProgress(80);
+            
+            // Assemble the result from the regions
+            checkCancelled();
+            Set<String> result;
+            try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("result")) {
+                result = resultCache.result(key, regions, operation);
+                timer.setElements(result.size());
+            }
+            setProgress(90);
+            
+            // Build the result view: counts only, element text is left to the list
+            checkCancelled();
+            ResultListModel model;
+            String summary;
+            VennRenderer.Diagram layout;
+            try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("result view")) {
+                model = new ResultListModel(result);
+                summary = describeResult(operation, parsedSets, regions.getRegionMasks(), regions::getRegionSize, result.size())
+                        + String.format("%nCache: %s (%,d hits, %,d misses, %d entries, ~%,.1f MB)",
+                                        cacheHit ? "hit" : "miss", resultCache.getHits(), resultCache.getMisses(),
+                                        resultCache.size(), resultCache.getBytes() / 1_000_000.0);
+                layout = layoutDiagram(numSets, regions.getRegionMasks(), regions::getRegion);
+                timer.setElements(result.size());
+            }
+            setProgress(100);
+            
+            return new CalculationResult(operation, parsedSets, model, summary, layout, key);
+        }
+        
+        // One sketch per field, then every region and result size from the sketches
+        private CalculationResult calculateApproximate() {
+            int numSets = texts.size();
+            List<HyperLogLog> sketches = new ArrayList<>();
+            try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("sketch")) {
+                for (int i = 0; i < numSets; i++) {
+                    checkCancelled();
+                    HyperLogLog sketch = loadedSketches.get(i);
+                    if (sketch == null) {
+                        sketch = new HyperLogLog();
+                        if (loaded.get(i) != null) {
+                            sketch.addAll(loaded.get(i));
+                        } else {
+                            sketch.addTokens(texts.get(i));
+                        }
+                    }
+                    sketches.add(sketch);
+                    setProgress(50 * (i + 1) / numSets);
+                }
+                timer.setElements(numSets);
+            }
+            
+            checkCancelled();
+            SketchIndex estimates;
+            try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("estimate")) {
+                estimates = new SketchIndex(sketches);
+                timer.setElements((1L << numSets) - 1);
+            }
+            setProgress(90);
+            
+            StringBuilder sb = new StringBuilder();
+            sb.append("Operation: ").append(operation)
+              .append(String.format(" (approximate: HyperLogLog, ±%.1f%% per estimate, error bounds at ~95%%)%n",
+                                    200 * estimates.getStandardError()));
+            for (int i = 0; i < numSets; i++) {
+                sb.append(String.format("Set %c: ≈ %,.0f ± %,.0f elements%n", (char) ('A' + i),
+                                        estimates.getSetSize(i), estimates.getSetError(i)));
+            }
+            
+            // Jaccard similarity of every pair, as far as it fits
+            List<String> pairs = new ArrayList<>();
+            for (int i = 0; i < numSets && pairs.size() < MAX_LISTED_REGIONS; i++) {
+                for (int j = i + 1; j < numSets && pairs.size() < MAX_LISTED_REGIONS; j++) {
+                    pairs.add(String.format("%c/%c %.3f", (char) ('A' + i), (char) ('A' + j), estimates.jaccard(i, j)));
+                }
+            }
+            sb.append("Jaccard: ").append(String.join(", ", pairs)).append("\n");
+            
+            if (numSets > 3) {
+                List<Integer> masks = estimates.getRegionMasks();
+                masks.sort((a, b) -> Double.compare(estimates.getRegionSize(b), estimates.getRegionSize(a)));
+                sb.append(String.format("Regions (≈ %,d non-empty):%n", masks.size()));
+                for (int mask : masks.subList(0, Math.min(MAX_LISTED_REGIONS, masks.size()))) {
+                    sb.append(String.format("  %s only: ≈ %,.0f ± %,.0f%n", RegionIndex.regionName(mask),
+                                            estimates.getRegionSize(mask), estimates.getRegionError(mask)));
+                }
+                if (masks.size() > MAX_LISTED_REGIONS) {
+                    sb.append("  ...\n");
+                }
+            }
+            
+            sb.append(String.format("Result: ≈ %,.0f ± %,.0f elements",
+                                    estimates.getResultSize(operation), estimates.getResultError(operation)));
+            
+            Map<Integer, Double> sizes = new HashMap<>();
+            Map<Integer, List<String>> labels = new HashMap<>();
+            for (int mask : estimates.getRegionMasks()) {
+                sizes.put(mask, estimates.getRegionSize(mask));
+                if (numSets <= 3) {
+                    labels.put(mask, Collections.unmodifiableList(VennRenderer.layoutEstimateLabel(
+                            estimates.getRegionSize(mask), estimates.getRegionError(mask))));
+                }
+            }
+            setProgress(100);
+            
+            return new CalculationResult(operation, Collections.emptyList(), null, sb.toString(),
+                                         new VennRenderer.Diagram(numSets, sizes, labels, true), null);
+        }
+        
+        private void checkCancelled() {
+            if (isCancelled() || Thread.currentThread().isInterrupted()) {
+                throw new CancellationException();
+            }
+        }
+        
+        @Override
+        protected void done() {
+            if (this != calculationWorker) {
+                return;
+            }
+            calculationWorker = null;
+            progressBar.setVisible(false);
+            cancelButton.setEnabled(false);
+            if (isCancelled()) {
+                return;
+            }
+            
+            try {
+                publishResult(get());
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            } catch (ExecutionException ex) {
+                JOptionPane.showMessageDialog(SetVisualizer.this, "Error in input: " + ex.getCause().getMessage(), 
+                                             "Error", JOptionPane.ERROR_MESSAGE);
+            }
+        }
+    }
+    
+    private void publishResult(CalculationResult calculation) {
+        currentOperation = calculation.operation;
+        resultModel = calculation.resultModel;
+        resultKey = calculation.key;
+        resultArea.setText(calculation.summary);
+        resultArea.setCaretPosition(0);
+        resultList.setModel(resultModel != null ? resultModel : new DefaultListModel<>());
+        exportButton.setEnabled(resultModel != null);
+        saveButton.setEnabled(resultKey != null);
+        
+        // Update the diagram; a different kind of diagram starts from the default view
+        if (diagram == null || diagram.getNumSets() != calculation.diagram.getNumSets()) {
+            diagramView.setToIdentity();
+        }
+        diagram = calculation.diagram;
+        invalidateDiagram();
+    }
+    
+    // Result panel text; shared by calculations and opened snapshots
+    private static String describeResult(String operation, List<? extends Set<String>> sets, Collection<Integer> regionMasks,
+                                         IntUnaryOperator regionSize, int resultSize) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("Operation: ").append(operation).append("\n");
+        
+        for (int i = 0; i < sets.size(); i++) {
+            char setName = (char) ('A' + i);
+            sb.append(String.format("Set %c: %,d elements%n", setName, sets.get(i).size()));
+        }
+        
+        // The diagram only labels 2 or 3 sets, so list the largest region sizes too
+        if (sets.size() > 3) {
+            List<Integer> masks = new ArrayList<>(regionMasks);
+            masks.sort((a, b) -> Integer.compare(regionSize.applyAsInt(b), regionSize.applyAsInt(a)));
+            sb.append(String.format("Regions (%,d non-empty):%n", masks.size()));
+            for (int mask : masks.subList(0, Math.min(MAX_LISTED_REGIONS, masks.size()))) {
+                sb.append(String.format("  %s only: %,d%n", RegionIndex.regionName(mask), regionSize.applyAsInt(mask)));
+            }
+            if (masks.size() > MAX_LISTED_REGIONS) {
+                sb.append("  ...\n");
+            }
+        }
+        
+        sb.append(String.format("Result: %,d elements", resultSize));
+        if (resultSize == 0) {
+            sb.append(" (None)");
+        }
+        return sb.toString();
+    }
+    
+    // Lays out the diagram once, so repaints never touch the regions
+    private static VennRenderer.Diagram layoutDiagram(int numSets, Collection<Integer> regionMasks,
+                                                      IntFunction<Set<String>> region) {
+        Map<Integer, Double> sizes = new HashMap<>();
+        Map<Integer, List<String>> labels = new HashMap<>();
+        for (int mask : regionMasks) {
+            Set<String> elements = region.apply(mask);
+            sizes.put(mask, (double) elements.size());
+            if (numSets <= 3) {
+                labels.put(mask, Collections.unmodifiableList(VennRenderer.layoutRegionLabel(elements)));
+            }
+        }
+        return new VennRenderer.Diagram(numSets, sizes, labels, false);
+    }
+    
+    private void invalidateDiagram() {
+        diagramDirty = true;
+        diagramPanel.repaint();
+    }
+    
+    // Repaints (expose, window drag) just blit the cached image
+    private void paintCachedDiagram(Graphics2D g) {
+        int width = diagramPanel.getWidth();
+        int height = diagramPanel.getHeight();
+        if (width <= 0 || height <= 0) {
+            return;
+        }
+        
+        // Render at device resolution so the cache stays sharp on scaled displays
+        AffineTransform transform = g.getTransform();
+        int imageWidth = (int) Math.ceil(width * transform.getScaleX());
+        int imageHeight = (int) Math.ceil(height * transform.getScaleY());
+        if (diagramCache == null || diagramCache.getWidth() != imageWidth || diagramCache.getHeight() != imageHeight) {
+            diagramCache = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_INT_RGB);
+            diagramDirty = true;
+        }
+        if (diagramDirty) {
+            Graphics2D imageGraphics = diagramCache.createGraphics();
+            imageGraphics.scale(transform.getScaleX(), transform.getScaleY());
+            try (StageMetrics.Timer timer = StageMetrics.GLOBAL.start("render")) {
+                vennRenderer.draw(imageGraphics, width, height, (Integer) numSetsComboBox.getSelectedItem(), diagram, diagramView);
+                timer.setElements(diagram == null ? 0 : diagram.getRegionCount());
+            }
+            imageGraphics.dispose();
+            diagramDirty = false;
+        }
+        g.drawImage(diagramCache, 0, 0, width, height, null);
+    }
+    
+    public static void main(String[] args) {
+        SwingUtilities.invokeLater(() -> {
+            SetVisualizer visualizer = new SetVisualizer();
+            visualizer.setVisible(true);
+        });
+    }
+}
\ No newline at end of file
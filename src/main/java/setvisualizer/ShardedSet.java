@@ -0,0 +1,76 @@
+package setvisualizer;
+
+import java.util.*;
+
+// Set made of hash partitions that were built independently, e.g. by the parallel
+// region builder. An element can only ever live in the shard its hash selects, so
+// lookups go to one shard and the shards never have to be merged into one table.
+public class ShardedSet extends AbstractSet<String> {
+    private final Set<String>[] shards;
+
+    @SuppressWarnings("unchecked")
+    public ShardedSet(List<Set<String>> shards) {
+        this.shards = shards.toArray((Set<String>[]) new Set<?>[0]);
+    }
+
+    public static int shardOf(Object element, int shardCount) {
+        int hash = element.hashCode() * 0x9E3779B9;
+        return (int) (((hash ^ (hash >>> 16)) & 0xFFFFFFFFL) % shardCount);
+    }
+
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    public Set<String> getShard(int index) {
+        return shards[index];
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return element != null && shards[shardOf(element, shards.length)].contains(element);
+    }
+
+    @Override
+    public boolean add(String element) {
+        return shards[shardOf(element, shards.length)].add(element);
+    }
+
+    @Override
+    public boolean remove(Object element) {
+        return element != null && shards[shardOf(element, shards.length)].remove(element);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Set<String> shard : shards) {
+            size += shard.size();
+        }
+        return size;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int shard;
+            private Iterator<String> current = shards.length == 0 ? Collections.emptyIterator() : shards[0].iterator();
+
+            @Override
+            public boolean hasNext() {
+                while (!current.hasNext() && shard + 1 < shards.length) {
+                    current = shards[++shard].iterator();
+                }
+                return current.hasNext();
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return current.next();
+            }
+        };
+    }
+}
@@ -0,0 +1,179 @@
+package setvisualizer;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+
+// Approximate counterpart of RegionIndex: region and result sizes estimated from
+// one HyperLogLog sketch per set, without any set members in memory.
+// The union of every subset of the sets is estimated by merging sketches along a
+// depth-first walk (one merge per subset); region sizes follow from those unions
+// by inclusion-exclusion, done as a Möbius transform over the subset lattice.
+public class SketchIndex {
+    // Error bounds are this many standard errors (about 95%)
+    private static final double CONFIDENCE = 2.0;
+
+    private final int numSets;
+    private final double standardError;
+    // unions[s] = estimated size of the union of the sets in mask s (unions[0] = 0)
+    private final double[] unions;
+    // regions[t] = estimated number of elements in exactly the sets of mask t (may be negative)
+    private final double[] regions;
+    // Error bound of regions[t]
+    private final double[] regionErrors;
+
+    public SketchIndex(List<HyperLogLog> sketches) {
+        numSets = sketches.size();
+        if (numSets == 0 || numSets > RegionIndex.MAX_SETS) {
+            throw new IllegalArgumentException("Between 1 and " + RegionIndex.MAX_SETS + " sketches are supported");
+        }
+        for (HyperLogLog sketch : sketches) {
+            sketches.get(0).checkCompatible(sketch);
+        }
+        standardError = sketches.get(0).standardError();
+
+        int full = (1 << numSets) - 1;
+        unions = new double[full + 1];
+        byte[][] stack = new byte[numSets + 1][sketches.get(0).getRegisterCount()];
+        estimateUnions(sketches, 0, 0, stack);
+
+        // Elements whose membership lies within x: everything minus the union of the sets outside x
+        regions = new double[full + 1];
+        regionErrors = new double[full + 1];
+        for (int x = 0; x <= full; x++) {
+            double outside = unions[full & ~x];
+            regions[x] = unions[full] - outside;
+            regionErrors[x] = outside * outside;
+        }
+        // Möbius transform turns "within x" into "exactly x"; the errors of the union
+        // estimates add up (as variances) over the same terms, via a zeta transform
+        for (int bit = 1; bit <= full; bit <<= 1) {
+            for (int mask = 0; mask <= full; mask++) {
+                if ((mask & bit) != 0) {
+                    regions[mask] -= regions[mask ^ bit];
+                    regionErrors[mask] += regionErrors[mask ^ bit];
+                }
+            }
+        }
+        for (int mask = 0; mask <= full; mask++) {
+            regionErrors[mask] = CONFIDENCE * standardError * Math.sqrt(regionErrors[mask]);
+        }
+    }
+
+    public static SketchIndex ofSets(List<Set<String>> sets) {
+        List<HyperLogLog> sketches = new ArrayList<>();
+        for (Set<String> set : sets) {
+            HyperLogLog sketch = new HyperLogLog();
+            sketch.addAll(set);
+            sketches.add(sketch);
+        }
+        return new SketchIndex(sketches);
+    }
+
+    // Visits each subset once, extending `mask` only with sets above its highest one
+    private void estimateUnions(List<HyperLogLog> sketches, int mask, int depth, byte[][] stack) {
+        if (Thread.currentThread().isInterrupted()) {
+            throw new CancellationException();
+        }
+        for (int i = depth == 0 ? 0 : 32 - Integer.numberOfLeadingZeros(mask); i < numSets; i++) {
+            int extended = mask | (1 << i);
+            byte[] union = stack[depth + 1];
+            if (depth == 0) {
+                System.arraycopy(sketches.get(i).registers(), 0, union, 0, union.length);
+                unions[extended] = sketches.get(i).estimate();
+            } else {
+                unions[extended] = HyperLogLog.mergeAndEstimate(stack[depth], sketches.get(i).registers(), union);
+            }
+            estimateUnions(sketches, extended, depth + 1, stack);
+        }
+    }
+
+    public int getNumSets() {
+        return numSets;
+    }
+
+    public double getStandardError() {
+        return standardError;
+    }
+
+    public double getSetSize(int index) {
+        return unions[1 << index];
+    }
+
+    public double getSetError(int index) {
+        return CONFIDENCE * standardError * unions[1 << index];
+    }
+
+    public double getRegionSize(int mask) {
+        return Math.max(0, regions[mask]);
+    }
+
+    public double getRegionError(int mask) {
+        return regionErrors[mask];
+    }
+
+    // Masks of the regions whose estimate is not zero, in ascending order
+    public List<Integer> getRegionMasks() {
+        List<Integer> masks = new ArrayList<>();
+        for (int mask = 1; mask < regions.length; mask++) {
+            if (regions[mask] >= 0.5) {
+                masks.add(mask);
+            }
+        }
+        return masks;
+    }
+
+    // Result size of one of the visualizer's operations, written directly in terms
+    // of unions where that takes fewer (so less noisy) estimates than summing regions
+    public double getResultSize(String operation) {
+        int full = unions.length - 1;
+        if (numSets >= 2) {
+            switch (operation) {
+                case "Union":
+                    return unions[full];
+                case "Difference":
+                    return Math.max(0, unions[0b11] - unions[0b10]);
+                case "Symmetric Difference":
+                    return Math.max(0, 2 * unions[0b11] - unions[0b01] - unions[0b10]);
+                default:
+                    break;
+            }
+        }
+        double size = 0;
+        for (int mask = 1; mask <= full; mask++) {
+            if (RegionIndex.inResult(operation, mask, numSets)) {
+                size += regions[mask];
+            }
+        }
+        return Math.max(0, size);
+    }
+
+    public double getResultError(String operation) {
+        int full = unions.length - 1;
+        if (numSets >= 2) {
+            switch (operation) {
+                case "Union":
+                    return CONFIDENCE * standardError * unions[full];
+                case "Intersection":
+                    return regionErrors[full];
+                case "Difference":
+                    return CONFIDENCE * standardError * Math.hypot(unions[0b11], unions[0b10]);
+                case "Symmetric Difference":
+                    return CONFIDENCE * standardError
+                            * Math.sqrt(4 * unions[0b11] * unions[0b11] + unions[0b01] * unions[0b01] + unions[0b10] * unions[0b10]);
+                default:
+                    throw new IllegalArgumentException("Unknown operation: " + operation);
+            }
+        }
+        return getSetError(0);
+    }
+
+    // Jaccard similarity |A ∩ B| / |A ∪ B| of two sets
+    public double jaccard(int first, int second) {
+        double union = unions[(1 << first) | (1 << second)];
+        if (union <= 0) {
+            return 0;
+        }
+        double intersection = unions[1 << first] + unions[1 << second] - union;
+        return Math.max(0, Math.min(1, intersection / union));
+    }
+}
@@ -0,0 +1,234 @@
+package setvisualizer;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.function.IntPredicate;
+
+// Immutable set of Strings kept as one sorted array (String.compareTo order, no
+// duplicates). There is no hash table: membership is a binary search, iteration
+// is in element order, and the regions of several sorted sets come out of a
+// single k-way merge instead of one hash probe per element and set.
+// Where one set's elements run ahead of all the others (e.g. a small set against
+// a large one) the end of the run is found by galloping and copied in one go, so
+// skewed sizes cost about small * log(large / small) comparisons, not large.
+public class SortedStringSet extends AbstractSet<String> {
+    private static final int CANCEL_CHECK_INTERVAL = 0xFFFF;
+    // Most inputs one k-way merge takes, so that membership masks fit in an int
+    private static final int MAX_WAYS = 16;
+
+    private final String[] elements;
+    private final int size;
+
+    // Takes over the array; its first `size` entries must be strictly ascending
+    SortedStringSet(String[] elements, int size) {
+        this.elements = elements;
+        this.size = size;
+    }
+
+    // The set itself if it is already sorted, otherwise a sorted copy of it
+    public static SortedStringSet of(Set<String> set) {
+        if (set instanceof SortedStringSet) {
+            return (SortedStringSet) set;
+        }
+        String[] elements = set.toArray(new String[0]);
+        Arrays.parallelSort(elements);
+        return new SortedStringSet(elements, elements.length);
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    public String get(int index) {
+        Objects.checkIndex(index, size);
+        return elements[index];
+    }
+
+    @Override
+    public boolean contains(Object element) {
+        return element instanceof String && Arrays.binarySearch(elements, 0, size, element) >= 0;
+    }
+
+    @Override
+    public Iterator<String> iterator() {
+        return new Iterator<String>() {
+            private int index;
+
+            @Override
+            public boolean hasNext() {
+                return index < size;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return elements[index++];
+            }
+        };
+    }
+
+    @Override
+    public Object[] toArray() {
+        return Arrays.copyOf(elements, size, Object[].class);
+    }
+
+    // Regions of the sets keyed by membership mask, each one sorted
+    public static SortedMap<Integer, Set<String>> regions(List<SortedStringSet> sets) {
+        if (sets.size() > MAX_WAYS) {
+            throw new IllegalArgumentException("At most " + MAX_WAYS + " sets are supported");
+        }
+        Run[] runs = new Run[1 << sets.size()];
+        merge(sets, (mask, source, from, to) -> {
+            if (runs[mask] == null) {
+                runs[mask] = new Run();
+            }
+            runs[mask].append(source, from, to);
+        });
+
+        SortedMap<Integer, Set<String>> regions = new TreeMap<>();
+        for (int mask = 1; mask < runs.length; mask++) {
+            if (runs[mask] != null) {
+                regions.put(mask, runs[mask].toSet());
+            }
+        }
+        return regions;
+    }
+
+    // Sorted elements whose membership mask passes the filter, from one merge of the sets
+    public static SortedStringSet select(List<SortedStringSet> sets, IntPredicate masks) {
+        if (sets.size() > MAX_WAYS) {
+            throw new IllegalArgumentException("At most " + MAX_WAYS + " sets are supported");
+        }
+        Run selected = new Run();
+        merge(sets, (mask, source, from, to) -> {
+            if (masks.test(mask)) {
+                selected.append(source, from, to);
+            }
+        });
+        return selected.toSet();
+    }
+
+    // Sorted union of any number of sets: groups of up to MAX_WAYS are merged, then
+    // groups of the merged ones and so on, like the rounds of a tournament
+    public static SortedStringSet union(List<SortedStringSet> sets) {
+        if (sets.isEmpty()) {
+            return new SortedStringSet(new String[0], 0);
+        }
+        List<SortedStringSet> round = sets;
+        while (round.size() > 1) {
+            List<SortedStringSet> merged = new ArrayList<>();
+            for (int from = 0; from < round.size(); from += MAX_WAYS) {
+                Run union = new Run();
+                merge(round.subList(from, Math.min(from + MAX_WAYS, round.size())),
+                        (mask, source, start, end) -> union.append(source, start, end));
+                merged.add(union.toSet());
+            }
+            round = merged;
+        }
+        return round.get(0);
+    }
+
+    // Receives the merged elements in ascending order, as ranges of one input's array
+    private interface RunConsumer {
+        void accept(int mask, String[] source, int from, int to);
+    }
+
+    // K-way merge: each step takes the smallest head. If only one set has it, every
+    // element of that set below the next smallest head goes out as one run;
+    // otherwise the element goes out once with the mask of the sets sharing it.
+    private static void merge(List<SortedStringSet> sets, RunConsumer consumer) {
+        int n = sets.size();
+        int[] cursors = new int[n];
+        Thread caller = Thread.currentThread();
+        int steps = 0;
+
+        while (true) {
+            if ((++steps & CANCEL_CHECK_INTERVAL) == 0 && caller.isInterrupted()) {
+                throw new CancellationException();
+            }
+
+            String min = null;
+            String next = null;
+            int mask = 0;
+            for (int i = 0; i < n; i++) {
+                SortedStringSet set = sets.get(i);
+                if (cursors[i] == set.size) {
+                    continue;
+                }
+                String head = set.elements[cursors[i]];
+                int order = min == null ? -1 : head.compareTo(min);
+                if (order < 0) {
+                    next = min;
+                    min = head;
+                    mask = 1 << i;
+                } else if (order == 0) {
+                    mask |= 1 << i;
+                } else if (next == null || head.compareTo(next) < 0) {
+                    next = head;
+                }
+            }
+            if (mask == 0) {
+                return;
+            }
+
+            if (Integer.bitCount(mask) == 1) {
+                int i = Integer.numberOfTrailingZeros(mask);
+                SortedStringSet set = sets.get(i);
+                int end = next == null ? set.size : gallop(set.elements, cursors[i] + 1, set.size, next);
+                consumer.accept(mask, set.elements, cursors[i], end);
+                cursors[i] = end;
+            } else {
+                int first = Integer.numberOfTrailingZeros(mask);
+                consumer.accept(mask, sets.get(first).elements, cursors[first], cursors[first] + 1);
+                for (int bits = mask; bits != 0; bits &= bits - 1) {
+                    cursors[Integer.numberOfTrailingZeros(bits)]++;
+                }
+            }
+        }
+    }
+
+    // First index in [from, to) whose element is not below `key`: doubling steps
+    // from `from` bracket it, then a binary search inside the bracket finds it
+    static int gallop(String[] elements, int from, int to, String key) {
+        int low = from;
+        int step = 1;
+        int high = from;
+        while (high < to && elements[high].compareTo(key) < 0) {
+            low = high + 1;
+            high = from + step;
+            step <<= 1;
+        }
+        high = Math.min(high, to);
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (elements[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    // Growable array the merge appends ranges to
+    private static class Run {
+        private String[] elements = new String[16];
+        private int size;
+
+        void append(String[] source, int from, int to) {
+            int length = to - from;
+            if (size + length > elements.length) {
+                elements = Arrays.copyOf(elements, Math.max(size + length, elements.length * 2));
+            }
+            System.arraycopy(source, from, elements, size, length);
+            size += length;
+        }
+
+        SortedStringSet toSet() {
+            return new SortedStringSet(size == elements.length ? elements : Arrays.copyOf(elements, size), size);
+        }
+    }
+}
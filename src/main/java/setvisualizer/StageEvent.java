@@ -0,0 +1,23 @@
+package setvisualizer;
+
+import jdk.jfr.*;
+
+// Flight recorder event for one run of a calculation stage (see StageMetrics).
+// Only recorded while a recording has "setvisualizer.Stage" enabled, e.g.
+// java -XX:StartFlightRecording:filename=sets.jfr SetVisualizer
+@Name("setvisualizer.Stage")
+@Label("Set Stage")
+@Category("Set Visualizer")
+@Description("One run of a stage of a set calculation")
+@StackTrace(false)
+class StageEvent extends Event {
+    @Label("Stage")
+    String stage;
+
+    @Label("Elements")
+    long elements;
+
+    @Label("Allocated")
+    @DataAmount
+    long allocatedBytes;
+}
@@ -0,0 +1,176 @@
+package setvisualizer;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Timing and allocation instrumentation for the stages of a calculation (parse,
+// regions, result, render, ...). Each stage keeps a latency histogram plus the
+// duration, element count and allocated bytes of its last run. Allocation is
+// measured on the thread that runs the stage, so work it forks onto the common
+// pool is timed but not counted. Every run is also emitted as a JFR event when
+// the runtime has the jdk.jfr module.
+public final class StageMetrics {
+    public static final StageMetrics GLOBAL = new StageMetrics();
+
+    private static final com.sun.management.ThreadMXBean THREADS = allocationBean();
+    private static final boolean JFR = jfrAvailable();
+
+    private final Map<String, Stage> stages = new ConcurrentSkipListMap<>();
+
+    private static com.sun.management.ThreadMXBean allocationBean() {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean
+                && ((com.sun.management.ThreadMXBean) bean).isThreadAllocatedMemorySupported()) {
+            ((com.sun.management.ThreadMXBean) bean).setThreadAllocatedMemoryEnabled(true);
+            return (com.sun.management.ThreadMXBean) bean;
+        }
+        return null;
+    }
+
+    private static boolean jfrAvailable() {
+        try {
+            Class.forName("jdk.jfr.Event");
+            return true;
+        } catch (ClassNotFoundException | LinkageError ex) {
+            return false;
+        }
+    }
+
+    private static long allocatedBytes() {
+        return THREADS == null ? 0 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    // Recorded numbers of one stage; written by whichever thread runs it
+    public static final class Stage {
+        private final String name;
+        private final LatencyHistogram latencies = new LatencyHistogram();
+        private final LongAdder totalAllocatedBytes = new LongAdder();
+        private volatile long lastNanos;
+        private volatile long lastElements;
+        private volatile long lastAllocatedBytes;
+
+        Stage(String name) {
+            this.name = name;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public LatencyHistogram getLatencies() {
+            return latencies;
+        }
+
+        public long getLastNanos() {
+            return lastNanos;
+        }
+
+        public long getLastElements() {
+            return lastElements;
+        }
+
+        public long getLastAllocatedBytes() {
+            return lastAllocatedBytes;
+        }
+
+        public long getTotalAllocatedBytes() {
+            return totalAllocatedBytes.sum();
+        }
+
+        void record(long nanos, long elements, long allocated) {
+            latencies.record(nanos);
+            totalAllocatedBytes.add(allocated);
+            lastNanos = nanos;
+            lastElements = elements;
+            lastAllocatedBytes = allocated;
+        }
+    }
+
+    // One timed run: try (StageMetrics.Timer timer = metrics.start("parse")) { ... }
+    public static final class Timer implements AutoCloseable {
+        private final Stage stage;
+        private final long startNanos;
+        private final long startBytes;
+        private final Object event;
+        private long elements;
+
+        Timer(Stage stage) {
+            this.stage = stage;
+            this.event = JFR ? beginEvent() : null;
+            this.startBytes = allocatedBytes();
+            this.startNanos = System.nanoTime();
+        }
+
+        public void setElements(long elements) {
+            this.elements = elements;
+        }
+
+        @Override
+        public void close() {
+            long nanos = System.nanoTime() - startNanos;
+            long allocated = Math.max(0, allocatedBytes() - startBytes);
+            stage.record(nanos, elements, allocated);
+            if (event != null) {
+                commitEvent((StageEvent) event, stage.name, elements, allocated);
+            }
+        }
+    }
+
+    private static Object beginEvent() {
+        StageEvent event = new StageEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    private static void commitEvent(StageEvent event, String stage, long elements, long allocated) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.stage = stage;
+            event.elements = elements;
+            event.allocatedBytes = allocated;
+            event.commit();
+        }
+    }
+
+    public Timer start(String stage) {
+        return new Timer(stages.computeIfAbsent(stage, Stage::new));
+    }
+
+    // Stages that have run at least once, by name
+    public Collection<Stage> getStages() {
+        return Collections.unmodifiableCollection(stages.values());
+    }
+
+    public void reset() {
+        stages.clear();
+    }
+
+    // Machine-readable dump, e.g. for tracking regressions between releases
+    public String toJson() {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"javaVersion\":").append(Json.quote(System.getProperty("java.version")))
+          .append(",\"timestamp\":").append(System.currentTimeMillis())
+          .append(",\"stages\":{");
+        boolean first = true;
+        for (Stage stage : stages.values()) {
+            if (!first) {
+                sb.append(',');
+            }
+            first = false;
+            sb.append(Json.quote(stage.name)).append(":{\"lastMicros\":").append(stage.lastNanos / 1000)
+              .append(",\"lastElements\":").append(stage.lastElements)
+              .append(",\"lastAllocatedBytes\":").append(stage.lastAllocatedBytes)
+              .append(",\"totalAllocatedBytes\":").append(stage.getTotalAllocatedBytes())
+              .append(",\"latency\":");
+            stage.latencies.appendJson(sb);
+            sb.append('}');
+        }
+        return sb.append("}}\n").toString();
+    }
+}
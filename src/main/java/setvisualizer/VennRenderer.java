@@ -0,0 +1,480 @@
+package setvisualizer;
+
+import java.awt.*;
+import java.awt.geom.*;
+import java.util.*;
+import java.util.List;
+
+// Draws the set diagram from a precomputed Diagram: Venn circles for 2 and 3 sets,
+// an UpSet-style matrix (one column per non-empty region, largest first) for more.
+// Kept free of Swing components so it can also render into offscreen images.
+// The view transform zooms and pans the geometry while text keeps its size, so
+// zooming in makes room for detail: a small region shows its elements unless they
+// cannot fit inside it, a large one its count, and large regions are shaded by size.
+// A paint only touches the regions and labels in view, never the elements.
+public class VennRenderer {
+    // Venn diagram layout parameters
+    private int vennRadius2 = 100; // radius for 2-set
+    private int vennRadius3 = 100;  // radius for 3-set
+    private int vennOffset2 = 10;  // horizontal offset for 2-set
+    private int vennOffset3 = 10;  // offset for 3-set
+    private int vennDiagramXOffset = -40; // horizontal offset for the entire diagram
+    private int vennValueXOffset = 55;
+    // UpSet matrix layout parameters (diagram units; the set column stays put when panning)
+    private int upSetLeft = 140;     // width of the set name and size column
+    private int upSetTop = 24;       // room for the caption
+    private int upSetBottom = 10;
+    private int upSetColumnWidth = 18;
+    
+    private static final Font SET_NAME_FONT = new Font("Arial", Font.BOLD, 16);
+    private static final Font ELEMENT_FONT = new Font("Arial", Font.PLAIN, 12);
+    private static final Font MESSAGE_FONT = new Font("Arial", Font.PLAIN, 14);
+    private static final Font MATRIX_FONT = new Font("Arial", Font.PLAIN, 11);
+    private static final Color[] SET_COLORS = {
+        new Color(255, 0, 0, 128), // Semi-transparent red
+        new Color(0, 0, 255, 128), // Semi-transparent blue
+        new Color(0, 150, 0, 128)  // Semi-transparent green
+    };
+    private static final Color BAR_COLOR = new Color(70, 110, 170);
+    private static final Color STRIPE_COLOR = new Color(242, 242, 242);
+    private static final Color ABSENT_COLOR = new Color(215, 215, 215);
+    
+    // Region labels show every element up to this many, otherwise a count and a sample
+    private static final int MAX_LABEL_ELEMENTS = 15;
+    private static final int LABEL_SAMPLE_ELEMENTS = 10;
+    private static final int ELEMENTS_PER_LINE = 5;
+    
+    // Everything a paint needs, prepared once per calculation off the EDT (read-only)
+    public static final class Diagram {
+        private final int numSets;
+        private final Map<Integer, List<String>> labels;
+        private final Map<Integer, Double> sizes;
+        private final boolean estimated;
+        private final int[] masksBySize; // non-empty regions, largest first
+        private final double[] setSizes;
+        private final double maxRegionSize;
+        
+        // Label lines are only needed for 2 or 3 sets; sizes are estimates in approximate mode
+        public Diagram(int numSets, Map<Integer, Double> sizes, Map<Integer, List<String>> labels, boolean estimated) {
+            this.numSets = numSets;
+            this.labels = labels;
+            this.sizes = sizes;
+            this.estimated = estimated;
+            this.masksBySize = sizes.entrySet().stream()
+                    .filter(entry -> entry.getValue() >= 0.5)
+                    .sorted((a, b) -> Double.compare(b.getValue(), a.getValue()))
+                    .mapToInt(Map.Entry::getKey)
+                    .toArray();
+            this.setSizes = new double[numSets];
+            double max = 0;
+            for (int mask : masksBySize) {
+                double size = sizes.get(mask);
+                max = Math.max(max, size);
+                for (int i = 0; i < numSets; i++) {
+                    if ((mask & (1 << i)) != 0) {
+                        setSizes[i] += size;
+                    }
+                }
+            }
+            this.maxRegionSize = max;
+        }
+        
+        public static Diagram empty(int numSets) {
+            return new Diagram(numSets, Collections.emptyMap(), Collections.emptyMap(), false);
+        }
+        
+        public int getNumSets() {
+            return numSets;
+        }
+        
+        public int getRegionCount() {
+            return masksBySize.length;
+        }
+        
+        double size(int mask) {
+            return sizes.getOrDefault(mask, 0.0);
+        }
+        
+        String formatSize(double size) {
+            return String.format(estimated ? "≈ %,.0f" : "%,.0f", size);
+        }
+    }
+    
+    public void draw(Graphics2D g2d, int width, int height, int numSets, Diagram diagram, AffineTransform view) {
+        g2d.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        
+        // Clear the background
+        g2d.setColor(Color.WHITE);
+        g2d.fillRect(0, 0, width, height);
+        
+        // A diagram calculated for another number of sets does not apply
+        if (diagram == null || diagram.numSets != numSets) {
+            diagram = Diagram.empty(numSets);
+        }
+        
+        if (numSets == 2 || numSets == 3) {
+            drawVennDiagram(g2d, diagram, view, vennLayout(width, height, numSets));
+        } else if (diagram.getRegionCount() == 0) {
+            drawMessage(g2d, width, height, "Calculate to see the regions of the " + numSets + " sets here.");
+        } else {
+            drawUpSetMatrix(g2d, width, height, diagram, view);
+        }
+    }
+    
+    private void drawMessage(Graphics2D g2d, int width, int height, String message) {
+        g2d.setColor(Color.BLACK);
+        g2d.setFont(MESSAGE_FONT);
+        g2d.drawString(message, (width - g2d.getFontMetrics().stringWidth(message)) / 2, height / 2);
+    }
+    
+    // Where the circles, set names and region labels of a 2- or 3-set diagram go
+    private static final class VennLayout {
+        final Shape[] circles;
+        final Point2D[] names;
+        final Map<Integer, Point2D> labels;
+        
+        VennLayout(Shape[] circles, Point2D[] names, Map<Integer, Point2D> labels) {
+            this.circles = circles;
+            this.names = names;
+            this.labels = labels;
+        }
+    }
+    
+    private VennLayout vennLayout(int width, int height, int numSets) {
+        return numSets == 2 ? twoSetLayout(width, height) : threeSetLayout(width, height);
+    }
+    
+    private VennLayout twoSetLayout(int width, int height) {
+        int centerX = width / 2 + vennDiagramXOffset;
+        int centerY = height / 2;
+        int radius = vennRadius2;
+        
+        Shape[] circles = {
+            new Ellipse2D.Double(centerX - radius - vennOffset2, centerY - radius, radius * 2, radius * 2),
+            new Ellipse2D.Double(centerX + vennOffset2, centerY - radius, radius * 2, radius * 2)
+        };
+        Point2D[] names = {
+            new Point2D.Double(centerX - radius - vennOffset2 + radius - 13, centerY - radius - 15),
+            new Point2D.Double(centerX + vennOffset2 + radius - 5, centerY - radius - 15)
+        };
+        
+        // Where the label of each region goes: only in A, only in B, in both
+        Map<Integer, Point2D> labels = new LinkedHashMap<>();
+        labels.put(0b01, new Point2D.Double(centerX - radius + 10 + vennValueXOffset, centerY - 10));
+        labels.put(0b10, new Point2D.Double(centerX + radius - 20 + vennValueXOffset, centerY - 10));
+        labels.put(0b11, new Point2D.Double(centerX - 5 + vennValueXOffset, centerY - 10));
+        
+        return new VennLayout(circles, names, labels);
+    }
+    
+    private VennLayout threeSetLayout(int width, int height) {
+        int centerX = width / 2 + vennDiagramXOffset;
+        int centerY = height / 2;
+        int radius = vennRadius3;
+        
+        // A (left), B (right), C (bottom)
+        Shape[] circles = {
+            new Ellipse2D.Double(centerX - radius - vennOffset3, centerY - radius, radius * 2, radius * 2),
+            new Ellipse2D.Double(centerX + vennOffset3, centerY - radius, radius * 2, radius * 2),
+            new Ellipse2D.Double(centerX - 50, centerY + vennOffset3, radius * 2, radius * 2)
+        };
+        Point2D[] names = {
+            new Point2D.Double(centerX - radius - vennOffset3 + radius - 8, centerY - radius - 15),
+            new Point2D.Double(centerX + vennOffset3 + radius - 8, centerY - radius - 15),
+            new Point2D.Double(centerX + 45, centerY + vennOffset3 + radius * 2 + 20)
+        };
+        
+        Map<Integer, Point2D> labels = new LinkedHashMap<>();
+        labels.put(0b001, new Point2D.Double(centerX - radius + 50, centerY - 20));
+        labels.put(0b010, new Point2D.Double(centerX + radius + 30, centerY - 20));
+        labels.put(0b100, new Point2D.Double(centerX + 45, centerY + radius + 45));
+        labels.put(0b011, new Point2D.Double(centerX + 50, centerY - 30));
+        labels.put(0b101, new Point2D.Double(centerX - 10, centerY + 70));
+        labels.put(0b110, new Point2D.Double(centerX + 100, centerY + 70));
+        labels.put(0b111, new Point2D.Double(centerX + 50, centerY + 40));
+        
+        return new VennLayout(circles, names, labels);
+    }
+    
+    private void drawVennDiagram(Graphics2D g2d, Diagram diagram, AffineTransform view, VennLayout layout) {
+        Shape[] shapes = transform(layout.circles, view);
+        for (int i = 0; i < shapes.length; i++) {
+            g2d.setColor(SET_COLORS[i]);
+            g2d.fill(shapes[i]);
+        }
+        
+        // Large regions are shaded under the outlines
+        for (int mask : layout.labels.keySet()) {
+            if (diagram.size(mask) > MAX_LABEL_ELEMENTS) {
+                shadeRegion(g2d, regionArea(shapes, mask), mask, diagram);
+            }
+        }
+        
+        // Draw outlines and set names
+        g2d.setColor(Color.BLACK);
+        for (Shape shape : shapes) {
+            g2d.draw(shape);
+        }
+        g2d.setFont(SET_NAME_FONT);
+        for (int i = 0; i < layout.names.length; i++) {
+            Point2D at = view.transform(layout.names[i], null);
+            g2d.drawString(String.valueOf((char) ('A' + i)), (float) at.getX(), (float) at.getY());
+        }
+        
+        // Draw elements in each region
+        g2d.setFont(ELEMENT_FONT);
+        for (Map.Entry<Integer, List<String>> label : labelLines(g2d.getFontMetrics(), diagram, shapes, layout).entrySet()) {
+            Point2D at = view.transform(layout.labels.get(label.getKey()), null);
+            drawWrappedText(g2d, label.getValue(), (int) at.getX(), (int) at.getY());
+        }
+    }
+    
+    // Lines each region of a 2- or 3-set diagram shows at the given view
+    Map<Integer, List<String>> vennLabels(Graphics2D g2d, int width, int height, Diagram diagram, AffineTransform view) {
+        VennLayout layout = vennLayout(width, height, diagram.numSets);
+        return labelLines(g2d.getFontMetrics(ELEMENT_FONT), diagram, transform(layout.circles, view), layout);
+    }
+    
+    // A small region shows all its elements, rewrapped to fewer per line if that is
+    // what fits the region's extent on screen, and a large one its count and a sample.
+    // What does not fit falls back to the count, then the bare number, then nothing.
+    private static Map<Integer, List<String>> labelLines(FontMetrics fm, Diagram diagram, Shape[] shapes, VennLayout layout) {
+        Map<Integer, List<String>> shownLines = new HashMap<>();
+        for (int mask : layout.labels.keySet()) {
+            List<String> lines = diagram.labels.getOrDefault(mask, Collections.emptyList());
+            if (lines.isEmpty()) {
+                continue;
+            }
+            Rectangle2D room = regionArea(shapes, mask).getBounds2D();
+            if (!diagram.estimated && diagram.size(mask) <= MAX_LABEL_ELEMENTS && !fits(fm, lines, room.getWidth(), room.getHeight())) {
+                lines = rewrap(fm, lines, room.getWidth());
+            }
+            if (!fits(fm, lines, room.getWidth(), room.getHeight())) {
+                List<String> count = Collections.singletonList(countLabel(diagram, mask, lines));
+                List<String> number = Collections.singletonList(diagram.formatSize(diagram.size(mask)));
+                lines = fits(fm, count, room.getWidth(), room.getHeight()) ? count
+                        : fits(fm, number, room.getWidth(), room.getHeight()) ? number : Collections.emptyList();
+            }
+            shownLines.put(mask, lines);
+        }
+        return shownLines;
+    }
+    
+    // The elements of the lines, as many per line as fit the width
+    private static List<String> rewrap(FontMetrics fm, List<String> lines, double width) {
+        List<String> wrapped = new ArrayList<>();
+        StringBuilder line = new StringBuilder();
+        for (String element : String.join(",", lines).split(",")) {
+            if (line.length() > 0 && fm.stringWidth(line + "," + element) > width) {
+                wrapped.add(line.append(',').toString());
+                line.setLength(0);
+            } else if (line.length() > 0) {
+                line.append(',');
+            }
+            line.append(element);
+        }
+        wrapped.add(line.toString());
+        return wrapped;
+    }
+    
+    private static Shape[] transform(Shape[] circles, AffineTransform view) {
+        Shape[] shapes = new Shape[circles.length];
+        for (int i = 0; i < circles.length; i++) {
+            shapes[i] = view.createTransformedShape(circles[i]);
+        }
+        return shapes;
+    }
+    
+    // The part of the diagram inside the circles of the mask and outside the others
+    private static Area regionArea(Shape[] circles, int mask) {
+        Area region = null;
+        for (int i = 0; i < circles.length; i++) {
+            if ((mask & (1 << i)) == 0) {
+                continue;
+            }
+            if (region == null) {
+                region = new Area(circles[i]);
+            } else {
+                region.intersect(new Area(circles[i]));
+            }
+        }
+        for (int i = 0; i < circles.length; i++) {
+            if ((mask & (1 << i)) == 0) {
+                region.subtract(new Area(circles[i]));
+            }
+        }
+        return region;
+    }
+    
+    private static boolean fits(FontMetrics fm, List<String> lines, double width, double height) {
+        if (lines.size() * fm.getHeight() > height) {
+            return false;
+        }
+        for (String line : lines) {
+            if (fm.stringWidth(line) > width) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static String countLabel(Diagram diagram, int mask, List<String> lines) {
+        // Estimate labels already lead with the estimate
+        return diagram.estimated ? lines.get(0) : String.format("(%,.0f elements)", diagram.size(mask));
+    }
+    
+    // Darkens a region by its size relative to the largest one, on a log scale
+    private void shadeRegion(Graphics2D g2d, Area region, int mask, Diagram diagram) {
+        double density = Math.log1p(diagram.size(mask)) / Math.log1p(Math.max(1, diagram.maxRegionSize));
+        g2d.setColor(new Color(0, 0, 0, (int) (10 + 60 * density)));
+        g2d.fill(region);
+    }
+    
+    private void drawWrappedText(Graphics2D g2d, List<String> lines, int x, int y) {
+        FontMetrics fm = g2d.getFontMetrics();
+        for (int i = 0; i < lines.size(); i++) {
+            String line = lines.get(i);
+            int lineWidth = fm.stringWidth(line);
+            g2d.drawString(line, x - lineWidth / 2, y + i * fm.getHeight());
+        }
+    }
+    
+    // One column per region, largest first: a bar for its size over a dot per set,
+    // filled where the region's elements are in the set. Only the columns in view
+    // are drawn, so thousands of regions cost no more than the screen can show.
+    private void drawUpSetMatrix(Graphics2D g2d, int width, int height, Diagram diagram, AffineTransform view) {
+        int numSets = diagram.numSets;
+        int[] masks = diagram.masksBySize;
+        int rowHeight = Math.max(8, Math.min(18, (height - upSetTop - upSetBottom - 80) / numSets));
+        double matrixTop = height - upSetBottom - rowHeight * numSets;
+        double barBottom = matrixTop - 4;
+        double barTop = upSetTop + 16; // room for the count over the largest bar
+        
+        double scaleX = view.getScaleX();
+        double scaleY = view.getScaleY();
+        double columnWidth = upSetColumnWidth * scaleX;
+        int first = (int) Math.max(0, Math.floor(((upSetLeft - view.getTranslateX()) / scaleX - upSetLeft) / upSetColumnWidth));
+        int last = (int) Math.min(masks.length - 1, Math.floor(((width - view.getTranslateX()) / scaleX - upSetLeft) / upSetColumnWidth));
+        
+        g2d.setFont(MATRIX_FONT);
+        FontMetrics fm = g2d.getFontMetrics();
+        Shape clip = g2d.getClip();
+        g2d.clipRect(upSetLeft, 0, width - upSetLeft, height);
+        
+        // Row stripes
+        g2d.setColor(STRIPE_COLOR);
+        for (int i = 0; i < numSets; i += 2) {
+            double y = scaleY * (matrixTop + i * rowHeight) + view.getTranslateY();
+            g2d.fill(new Rectangle2D.Double(upSetLeft, y, width - upSetLeft, rowHeight * scaleY));
+        }
+        
+        double dotRadius = Math.max(1.5, 0.3 * Math.min(columnWidth, rowHeight * scaleY));
+        for (int c = first; c <= last; c++) {
+            int mask = masks[c];
+            double size = diagram.size(mask);
+            double left = scaleX * (upSetLeft + c * upSetColumnWidth) + view.getTranslateX();
+            double centerX = left + columnWidth / 2;
+            
+            // Bar, with its count when that fits over it
+            double barHeight = (barBottom - barTop) * size / diagram.maxRegionSize;
+            double top = scaleY * (barBottom - barHeight) + view.getTranslateY();
+            double bottom = scaleY * barBottom + view.getTranslateY();
+            g2d.setColor(BAR_COLOR);
+            g2d.fill(new Rectangle2D.Double(left + columnWidth * 0.15, top, columnWidth * 0.7, bottom - top));
+            String count = diagram.formatSize(size);
+            int countWidth = fm.stringWidth(count);
+            if (countWidth <= columnWidth - 2) {
+                g2d.setColor(Color.BLACK);
+                g2d.drawString(count, (float) (centerX - countWidth / 2.0), (float) (top - 3));
+            }
+            
+            // Membership dots, joined from the first set of the region to the last
+            double lowest = Double.NaN;
+            double highest = Double.NaN;
+            for (int i = 0; i < numSets; i++) {
+                double y = scaleY * (matrixTop + (i + 0.5) * rowHeight) + view.getTranslateY();
+                boolean member = (mask & (1 << i)) != 0;
+                if (member) {
+                    lowest = Double.isNaN(lowest) ? y : lowest;
+                    highest = y;
+                }
+                g2d.setColor(member ? Color.DARK_GRAY : ABSENT_COLOR);
+                g2d.fill(new Ellipse2D.Double(centerX - dotRadius, y - dotRadius, 2 * dotRadius, 2 * dotRadius));
+            }
+            if (highest > lowest) {
+                g2d.setColor(Color.DARK_GRAY);
+                g2d.setStroke(new BasicStroke((float) Math.max(1, dotRadius / 2)));
+                g2d.draw(new Line2D.Double(centerX, lowest, centerX, highest));
+                g2d.setStroke(new BasicStroke());
+            }
+        }
+        g2d.setClip(clip);
+        
+        // Set column: name and a bar for the set's size, following the vertical view only
+        double maxSetSize = Arrays.stream(diagram.setSizes).max().orElse(1);
+        int barWidth = upSetLeft - 90;
+        for (int i = 0; i < numSets; i++) {
+            double y = scaleY * (matrixTop + (i + 0.5) * rowHeight) + view.getTranslateY();
+            int baseline = (int) (y + fm.getAscent() / 2.0 - 1);
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(String.valueOf((char) ('A' + i)), 8, baseline);
+            double length = barWidth * diagram.setSizes[i] / Math.max(1, maxSetSize);
+            g2d.setColor(BAR_COLOR);
+            g2d.fill(new Rectangle2D.Double(22, y - rowHeight * scaleY * 0.3, length, rowHeight * scaleY * 0.6));
+            g2d.setColor(Color.BLACK);
+            g2d.drawString(diagram.formatSize(diagram.setSizes[i]), 26 + barWidth, baseline);
+        }
+        
+        g2d.setColor(Color.BLACK);
+        String caption = first > last
+                ? String.format("No regions in view (%,d in total); double-click to reset the view", masks.length)
+                : String.format("Regions %,d-%,d of %,d, largest first (scroll to zoom, drag to pan, double-click to reset)",
+                                first + 1, last + 1, masks.length);
+        g2d.drawString(caption, upSetLeft, 16);
+    }
+    
+    // Label lines for a region: five elements per line, and for large regions a
+    // count plus a sample instead of every element. Computed once per calculation.
+    public static List<String> layoutRegionLabel(Set<String> region) {
+        List<String> lines = new ArrayList<>();
+        if (region.isEmpty()) {
+            return lines;
+        }
+        
+        boolean truncated = region.size() > MAX_LABEL_ELEMENTS;
+        int shown = truncated ? LABEL_SAMPLE_ELEMENTS : region.size();
+        if (truncated) {
+            lines.add(String.format("(%,d elements)", region.size()));
+        }
+        
+        StringBuilder currentLine = new StringBuilder();
+        int count = 0;
+        Iterator<String> elements = region.iterator();
+        for (int i = 0; i < shown; i++) {
+            if (count > 0) {
+                currentLine.append(",");
+            }
+            currentLine.append(elements.next());
+            count++;
+            if (count == ELEMENTS_PER_LINE || i == shown - 1) {
+                lines.add(currentLine.toString());
+                currentLine = new StringBuilder();
+                count = 0;
+            }
+        }
+        if (truncated) {
+            lines.set(lines.size() - 1, lines.get(lines.size() - 1) + ", ...");
+        }
+        return lines;
+    }
+    
+    // Label for an approximate region: the estimate and its error bound
+    public static List<String> layoutEstimateLabel(double estimate, double error) {
+        List<String> lines = new ArrayList<>();
+        if (estimate >= 0.5) {
+            lines.add(String.format("≈ %,.0f", estimate));
+            lines.add(String.format("± %,.0f", error));
+        }
+        return lines;
+    }
+}
@@ -0,0 +1,179 @@
+package setvisualizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class NumericSetTest {
+    @Test
+    void blockTurnsIntoABitmapAboveArrayLimit() {
+        NumericSet set = new NumericSet();
+        for (int i = 0; i < NumericSet.ARRAY_LIMIT; i++) {
+            assertTrue(set.add(i * 3L));
+        }
+        assertFalse(set.isDenseBlock(0));
+        assertFalse(set.add(0));
+
+        assertTrue(set.add(1));
+        assertTrue(set.isDenseBlock(0));
+        assertEquals(NumericSet.ARRAY_LIMIT + 1, set.size());
+        for (int i = 0; i < NumericSet.ARRAY_LIMIT; i++) {
+            assertTrue(set.contains(i * 3L));
+        }
+        assertTrue(set.contains(1));
+        assertFalse(set.contains(2));
+    }
+
+    @Test
+    void removeTurnsABitmapBackIntoAnArray() {
+        NumericSet set = new NumericSet();
+        for (int i = 0; i <= NumericSet.ARRAY_LIMIT; i++) {
+            set.add(i);
+        }
+        assertTrue(set.isDenseBlock(0));
+
+        assertTrue(set.remove(7));
+        assertFalse(set.remove(7));
+        assertFalse(set.isDenseBlock(0));
+        assertEquals(NumericSet.ARRAY_LIMIT, set.size());
+        assertFalse(set.contains(7));
+        assertTrue(set.contains(6));
+        assertTrue(set.contains(NumericSet.ARRAY_LIMIT));
+    }
+
+    @Test
+    void negativeValuesAndBlockBoundaries() {
+        long[] values = {-999_999_999_999_999_999L, -65_537, -65_536, -65_535, -1, 0, 65_535, 65_536,
+                131_071, 131_072, 999_999_999_999_999_999L};
+        NumericSet set = new NumericSet();
+        List<Long> shuffled = new ArrayList<>();
+        for (long value : values) {
+            shuffled.add(value);
+        }
+        Collections.shuffle(shuffled, new Random(1));
+        shuffled.forEach(set::add);
+
+        assertArrayEquals(values, set.toLongArray());
+        assertEquals(values.length, set.size());
+        for (long value : values) {
+            assertTrue(set.contains(Long.toString(value)), Long.toString(value));
+            assertFalse(set.contains(value + 3), Long.toString(value + 3));
+        }
+        List<String> strings = new ArrayList<>(set);
+        assertEquals("-999999999999999999", strings.get(0));
+        assertEquals("-1", strings.get(4));
+        assertEquals("65536", strings.get(7));
+
+        assertTrue(set.remove("-65536"));
+        assertFalse(set.contains(-65_536));
+        assertTrue(set.contains(-65_537));
+        assertTrue(set.contains(-65_535));
+    }
+
+    @Test
+    void parseAcceptsOnlyCanonicalIntegers() {
+        for (String text : new String[] {"0", "7", "-7", "42", "999999999999999999", "-999999999999999999"}) {
+            assertEquals(Long.parseLong(text), NumericSet.parse(text, 0, text.length()), text);
+        }
+        for (String text : new String[] {"007", "00", "-0", "-07", "+1", "", "-", "1a", "1.0", " 1", "1000000000000000000"}) {
+            assertEquals(NumericSet.NOT_NUMERIC, NumericSet.parse(text, 0, text.length()), text);
+        }
+        assertEquals(23, NumericSet.parse("a,23,b", 2, 4));
+
+        NumericSet set = new NumericSet();
+        assertFalse(set.contains("007"));
+        assertThrows(IllegalArgumentException.class, () -> set.add("+1"));
+    }
+
+    @Test
+    void andNotAndOrInPlaceMixSparseAndDenseBlocks() {
+        NumericSet dense = new NumericSet();
+        NumericSet sparse = new NumericSet();
+        for (long i = 0; i < 10_000; i++) {
+            dense.add(i * 2);
+        }
+        for (long i = 0; i < 100; i++) {
+            sparse.add(i * 7);
+            sparse.add(200_000 + i);
+        }
+
+        Set<Long> expected = longs(dense);
+        expected.removeAll(longs(sparse));
+        assertEquals(expected, longs(NumericSet.andNot(dense, sparse)));
+        expected = longs(sparse);
+        expected.removeAll(longs(dense));
+        assertEquals(expected, longs(NumericSet.andNot(sparse, dense)));
+
+        expected = longs(dense);
+        expected.addAll(longs(sparse));
+        sparse.orInPlace(dense);
+        assertEquals(expected, longs(sparse));
+        assertEquals(expected.size(), sparse.size());
+    }
+
+    @Test
+    void regionsOfSparseSets() {
+        Random random = new Random(2);
+        List<NumericSet> sets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            NumericSet set = new NumericSet();
+            for (int k = 0; k < 500; k++) {
+                set.add(random.nextInt(2_000) - 1_000 + (k % 2) * 70_000L);
+            }
+            assertFalse(set.isDenseBlock(0));
+            sets.add(set);
+        }
+        assertRegions(sets);
+    }
+
+    @Test
+    void regionsOfDenseSets() {
+        Random random = new Random(3);
+        for (int numSets : new int[] {3, 6}) {
+            List<NumericSet> sets = new ArrayList<>();
+            for (int i = 0; i < numSets; i++) {
+                NumericSet set = new NumericSet();
+                for (int k = 0; k < 20_000; k++) {
+                    set.add(random.nextInt(131_072));
+                }
+                // One sparse block among the dense ones
+                set.add(1_000_000L + i);
+                assertTrue(set.isDenseBlock(0));
+                sets.add(set);
+            }
+            assertRegions(sets);
+        }
+    }
+
+    // Both the sequential and the parallel split against regions computed value by value
+    private static void assertRegions(List<NumericSet> sets) {
+        Map<Integer, Set<Long>> expected = new HashMap<>();
+        Set<Long> all = new HashSet<>();
+        sets.forEach(set -> all.addAll(longs(set)));
+        for (long value : all) {
+            int mask = 0;
+            for (int i = 0; i < sets.size(); i++) {
+                if (sets.get(i).contains(value)) {
+                    mask |= 1 << i;
+                }
+            }
+            expected.computeIfAbsent(mask, m -> new HashSet<>()).add(value);
+        }
+
+        for (boolean parallel : new boolean[] {false, true}) {
+            Map<Integer, NumericSet> regions = NumericSet.regions(sets, parallel);
+            assertEquals(expected.keySet(), regions.keySet());
+            for (Map.Entry<Integer, NumericSet> region : regions.entrySet()) {
+                assertEquals(expected.get(region.getKey()), longs(region.getValue()));
+                assertEquals(expected.get(region.getKey()).size(), region.getValue().size());
+            }
+        }
+    }
+
+    private static Set<Long> longs(NumericSet set) {
+        Set<Long> values = new HashSet<>();
+        set.forEachLong(values::add);
+        return values;
+    }
+}
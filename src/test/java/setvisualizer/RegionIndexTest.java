@@ -0,0 +1,233 @@
+package setvisualizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import java.util.concurrent.CancellationException;
+import org.junit.jupiter.api.Test;
+
+class RegionIndexTest {
+    private static final String[] OPERATIONS = {"Union", "Intersection", "Difference", "Symmetric Difference"};
+
+    @Test
+    void regionsPartitionTheUnion() {
+        RegionIndex index = new RegionIndex(parse("a,b,c,d", "c,d,e", "d,e,f,a"));
+
+        assertEquals(Set.of("b"), index.getRegion(0b001));
+        assertEquals(Set.of("a"), index.getRegion(0b101));
+        assertEquals(Set.of("c"), index.getRegion(0b011));
+        assertEquals(Set.of("d"), index.getRegion(0b111));
+        assertEquals(Set.of("e"), index.getRegion(0b110));
+        assertEquals(Set.of("f"), index.getRegion(0b100));
+        assertEquals(0, index.getRegionSize(0b010));
+    }
+
+    @Test
+    void operationsOfThreeSets() {
+        RegionIndex index = new RegionIndex(parse("b,a,c,x", "c,b,y", "a,c,z"));
+
+        assertEquals(Set.of("a", "b", "c", "x", "y", "z"), index.result("Union"));
+        assertEquals(Set.of("c"), index.result("Intersection"));
+        assertEquals(Set.of("a", "x"), index.result("Difference"));
+        assertEquals(Set.of("a", "x", "y"), index.result("Symmetric Difference"));
+    }
+
+    @Test
+    void operationNamesMapToTheOperations() {
+        assertEquals(List.of("union", "intersection", "difference", "symmetric-difference"),
+                new ArrayList<>(RegionIndex.OPERATION_NAMES.keySet()));
+        assertEquals(List.of(OPERATIONS), new ArrayList<>(RegionIndex.OPERATION_NAMES.values()));
+    }
+
+    @Test
+    void everyRepresentationGivesTheSameResults() {
+        String[][] inputs = {
+                {"b,a,c,x", "c,b,y", "a,c,z"},      // strings, hashed
+                {"a,b,c,x", "b,c,y", "a,c,z"},      // strings, sorted
+                {"3,1,2,7", "2,3,8", "1,3,9"},      // numbers
+        };
+        for (String[] input : inputs) {
+            List<Set<String>> sets = parse(input);
+            RegionIndex index = new RegionIndex(sets);
+            for (String operation : OPERATIONS) {
+                assertEquals(expected(operation, sets), index.result(operation), operation + " of " + Arrays.toString(input));
+            }
+        }
+    }
+
+    @Test
+    void onlyAllSortedInputsAreMerged() {
+        List<Set<String>> sets = parse("a,b,c", "b,c,d", "d,c,e");
+        assertTrue(new RegionIndex(sets.subList(0, 2)).isSorted());
+
+        RegionIndex mixed = new RegionIndex(sets);
+        assertFalse(mixed.isSorted());
+        for (String operation : OPERATIONS) {
+            assertEquals(expected(operation, sets), mixed.result(operation), operation);
+        }
+    }
+
+    @Test
+    void parallelPathMatchesTheSets() {
+        Random random = new Random(7);
+        List<Set<String>> sets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Set<String> set = new HashSet<>();
+            while (set.size() < RegionIndex.PARALLEL_THRESHOLD / 2) {
+                set.add("id" + random.nextInt(RegionIndex.PARALLEL_THRESHOLD));
+            }
+            sets.add(set);
+        }
+        RegionIndex index = new RegionIndex(sets);
+
+        Set<String> all = new HashSet<>();
+        sets.forEach(all::addAll);
+        int total = 0;
+        for (int mask : index.getRegionMasks()) {
+            for (String element : index.getRegion(mask)) {
+                assertEquals(mask, index.getMembership(element));
+            }
+            total += index.getRegionSize(mask);
+        }
+        assertEquals(all.size(), total);
+        for (String operation : OPERATIONS) {
+            assertEquals(expected(operation, sets), index.result(operation), operation);
+        }
+    }
+
+    @Test
+    void cancelledRebuildLeavesTheIndexUnchanged() {
+        Random random = new Random(11);
+        List<Set<String>> sets = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Set<String> set = new HashSet<>();
+            while (set.size() < 100_000) {
+                set.add("id" + random.nextInt(200_000));
+            }
+            sets.add(SortedStringSet.of(set));
+        }
+        RegionIndex index = new RegionIndex(sets);
+        Map<Integer, Set<String>> before = new HashMap<>();
+        for (int mask : index.getRegionMasks()) {
+            before.put(mask, new HashSet<>(index.getRegion(mask)));
+        }
+
+        Set<String> replacement = SortedStringSet.of(Set.of("a", "b"));
+        Thread.currentThread().interrupt();
+        try {
+            assertThrows(CancellationException.class, () -> index.replaceSet(1, replacement));
+        } finally {
+            Thread.interrupted();
+        }
+
+        assertSame(sets.get(1), index.getSet(1));
+        assertEquals(before.keySet(), index.getRegionMasks());
+        for (int mask : index.getRegionMasks()) {
+            assertEquals(before.get(mask), index.getRegion(mask));
+        }
+        index.replaceSet(1, replacement);
+        assertEquals(Set.of("a", "b"), index.getRegion(0b010));
+    }
+
+    @Test
+    void replacingHashedSetMatchesAFreshIndex() {
+        List<Set<String>> sets = parse("b,a,c,x", "c,b,y", "a,c,z");
+        RegionIndex index = new RegionIndex(sets);
+        Set<String> replacement = SetParser.parseText("y,z,a,w");
+        assertFalse(replacement instanceof SortedStringSet);
+
+        // b and c leave, z, a and w join; y stays
+        assertEquals(5, index.replaceSet(1, replacement));
+        sets.set(1, replacement);
+        assertSameIndex(new RegionIndex(sets), index, List.of("a", "b", "c", "w", "x", "y", "z", "v"));
+    }
+
+    @Test
+    void replacingNumericSetMatchesAFreshIndex() {
+        List<Set<String>> sets = parse("3,1,2,70000", "2,3,8", "1,3,-9");
+        RegionIndex index = new RegionIndex(sets);
+        Set<String> replacement = SetParser.parseText("8,70000,-9,65536");
+        assertTrue(replacement instanceof NumericSet);
+
+        assertEquals(5, index.replaceSet(1, replacement));
+        sets.set(1, replacement);
+        assertSameIndex(new RegionIndex(sets), index, List.of("1", "2", "3", "8", "-9", "70000", "65536", "4"));
+    }
+
+    @Test
+    void replacingShardedSetMatchesAFreshIndex() {
+        Random random = new Random(13);
+        List<Set<String>> sets = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            Set<String> set = new HashSet<>();
+            while (set.size() < RegionIndex.PARALLEL_THRESHOLD / 3) {
+                set.add("id" + random.nextInt(RegionIndex.PARALLEL_THRESHOLD));
+            }
+            sets.add(set);
+        }
+        RegionIndex index = new RegionIndex(sets);
+        Set<String> replacement = new HashSet<>(sets.get(2));
+        replacement.removeIf(element -> element.hashCode() % 3 == 0);
+        for (int k = 0; k < 1_000; k++) {
+            replacement.add("new" + k);
+        }
+
+        index.replaceSet(2, replacement);
+        sets.set(2, replacement);
+        RegionIndex fresh = new RegionIndex(sets);
+        assertTrue(fresh.result("Union") instanceof ShardedSet);
+        assertSameIndex(fresh, index, List.of("new0", "new999", "id1", "id2", "id3", "missing"));
+    }
+
+    private static void assertSameIndex(RegionIndex expected, RegionIndex actual, List<String> probes) {
+        assertEquals(expected.getRegionMasks(), actual.getRegionMasks());
+        for (int mask : expected.getRegionMasks()) {
+            assertEquals(expected.getRegion(mask), actual.getRegion(mask), RegionIndex.regionName(mask));
+        }
+        for (String probe : probes) {
+            assertEquals(expected.getMembership(probe), actual.getMembership(probe), probe);
+        }
+        for (String operation : OPERATIONS) {
+            assertEquals(expected.result(operation), actual.result(operation), operation);
+        }
+    }
+
+    static List<Set<String>> parse(String... texts) {
+        List<Set<String>> sets = new ArrayList<>();
+        for (String text : texts) {
+            sets.add(SetParser.parseText(text));
+        }
+        return sets;
+    }
+
+    // The operation computed directly from the sets with java.util collections:
+    // Difference is A \ B and Symmetric Difference (A ∪ B) \ (A ∩ B)
+    static Set<String> expected(String operation, List<Set<String>> sets) {
+        Set<String> a = new HashSet<>(sets.get(0));
+        Set<String> b = sets.size() < 2 ? Collections.emptySet() : new HashSet<>(sets.get(1));
+        Set<String> expected = new HashSet<>();
+        switch (operation) {
+            case "Union":
+                sets.forEach(expected::addAll);
+                break;
+            case "Intersection":
+                expected.addAll(a);
+                sets.forEach(expected::retainAll);
+                break;
+            case "Difference":
+                expected.addAll(a);
+                expected.removeAll(b);
+                break;
+            case "Symmetric Difference":
+                expected.addAll(a);
+                expected.addAll(b);
+                Set<String> both = new HashSet<>(a);
+                both.retainAll(b);
+                expected.removeAll(both);
+                break;
+            default:
+                throw new IllegalArgumentException(operation);
+        }
+        return expected;
+    }
+}
@@ -0,0 +1,87 @@
+package setvisualizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.*;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class SessionSnapshotTest {
+    private static final String[] OPERATIONS = {"Union", "Intersection", "Difference", "Symmetric Difference"};
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void stringSessionRoundTrips() throws IOException {
+        RegionIndex index = new RegionIndex(RegionIndexTest.parse("b,a,c,ünïcödé", "c,b,y,😀", "a,c,z,"));
+        SessionSnapshot snapshot = saveAndOpen(index, "Difference");
+
+        assertFalse(snapshot.isNumeric());
+        assertSameSession(index, snapshot);
+        assertEquals("Difference", snapshot.getOperation());
+    }
+
+    @Test
+    void numericSessionRoundTrips() throws IOException {
+        StringBuilder dense = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            dense.append(i * 3).append(',');
+        }
+        RegionIndex index = new RegionIndex(RegionIndexTest.parse(
+                dense + "-5,999999999999999999", "-65537,-5,70000,3,6", "0,1,2,-999999999999999999"));
+        SessionSnapshot snapshot = saveAndOpen(index, "Union");
+
+        assertTrue(snapshot.isNumeric());
+        assertSameSession(index, snapshot);
+        assertTrue(snapshot.getSet(1).materialize() instanceof NumericSet);
+        assertEquals(List.of("-65537", "70000"), new ArrayList<>(snapshot.getRegion(0b010)));
+    }
+
+    @Test
+    void truncatedFileIsRejected() throws IOException {
+        Path file = dir.resolve("session.sets");
+        SessionSnapshot.save(file, new RegionIndex(RegionIndexTest.parse("a,b", "b,c")), "Union");
+        byte[] bytes = Files.readAllBytes(file);
+
+        for (int length : new int[] {bytes.length - 1, 20, 5}) {
+            Path truncated = dir.resolve("truncated-" + length + ".sets");
+            Files.write(truncated, Arrays.copyOf(bytes, length));
+            IOException error = assertThrows(IOException.class, () -> SessionSnapshot.open(truncated));
+            assertTrue(error.getMessage().contains("truncated or corrupt"), error.getMessage());
+        }
+    }
+
+    @Test
+    void otherFilesAreRejectedByTheirMagic() throws IOException {
+        Path file = dir.resolve("not-a-session.txt");
+        Files.write(file, ByteBuffer.allocate(64).putInt(0x12345678).array());
+
+        IOException error = assertThrows(IOException.class, () -> SessionSnapshot.open(file));
+        assertTrue(error.getMessage().contains("not a set session snapshot"), error.getMessage());
+    }
+
+    private SessionSnapshot saveAndOpen(RegionIndex index, String operation) throws IOException {
+        Path file = dir.resolve("session.sets");
+        SessionSnapshot.save(file, index, operation);
+        return SessionSnapshot.open(file);
+    }
+
+    private static void assertSameSession(RegionIndex index, SessionSnapshot snapshot) {
+        assertEquals(index.getNumSets(), snapshot.getNumSets());
+        assertEquals(new ArrayList<>(index.getRegionMasks()), snapshot.getRegionMasks());
+        for (int mask : index.getRegionMasks()) {
+            assertEquals(index.getRegionSize(mask), snapshot.getRegionSize(mask));
+            assertEquals(index.getRegion(mask), new HashSet<>(snapshot.getRegion(mask)));
+        }
+        for (int i = 0; i < index.getNumSets(); i++) {
+            assertEquals(index.getSet(i), snapshot.getSet(i).materialize());
+        }
+        for (String operation : OPERATIONS) {
+            assertEquals(index.result(operation), new HashSet<>(snapshot.getResult(operation)), operation);
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package setvisualizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class SortedStringSetTest {
+    @Test
+    void unionOfMoreInputsThanMaskBits() {
+        Random random = new Random(3);
+        List<SortedStringSet> sets = new ArrayList<>();
+        Set<String> expected = new TreeSet<>();
+        for (int i = 0; i < 40; i++) {
+            Set<String> set = new HashSet<>();
+            for (int k = 0; k < 500; k++) {
+                set.add("id" + random.nextInt(5_000));
+            }
+            expected.addAll(set);
+            sets.add(SortedStringSet.of(set));
+        }
+
+        SortedStringSet union = SortedStringSet.union(sets);
+        assertEquals(new ArrayList<>(expected), new ArrayList<>(union));
+        assertEquals(0, SortedStringSet.union(Collections.emptyList()).size());
+    }
+
+    @Test
+    void regionsOfSixteenSets() {
+        Random random = new Random(5);
+        List<Set<String>> sets = new ArrayList<>();
+        for (int i = 0; i < RegionIndex.MAX_SETS; i++) {
+            Set<String> set = new HashSet<>();
+            for (int k = 0; k < 20_000; k++) {
+                set.add("id" + random.nextInt(30_000));
+            }
+            sets.add(SortedStringSet.of(set));
+        }
+        RegionIndex index = new RegionIndex(sets);
+        assertTrue(index.isSorted());
+        assertTrue(index.getRegionMasks().size() > 1_000);
+
+        for (String operation : new String[] {"Union", "Intersection", "Difference", "Symmetric Difference"}) {
+            Set<String> result = index.result(operation);
+            assertEquals(RegionIndexTest.expected(operation, sets), result, operation);
+            List<String> inOrder = new ArrayList<>(result);
+            List<String> sorted = new ArrayList<>(inOrder);
+            Collections.sort(sorted);
+            assertEquals(sorted, inOrder, operation);
+        }
+    }
+
+    @Test
+    void regionsRejectMoreSetsThanMaskBits() {
+        List<SortedStringSet> sets = Collections.nCopies(RegionIndex.MAX_SETS + 1, SortedStringSet.of(Set.of("a")));
+        assertThrows(IllegalArgumentException.class, () -> SortedStringSet.regions(sets));
+    }
+}
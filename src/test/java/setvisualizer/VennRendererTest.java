@@ -0,0 +1,55 @@
+package setvisualizer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+import java.awt.Graphics2D;
+import java.awt.geom.AffineTransform;
+import java.awt.image.BufferedImage;
+import java.util.*;
+import org.junit.jupiter.api.Test;
+
+class VennRendererTest {
+    private static final int WIDTH = 1000;
+    private static final int HEIGHT = 600;
+
+    @Test
+    void smallRegionShowsItsElementsAtIdentityZoom() {
+        Set<String> region = new LinkedHashSet<>(List.of("101", "102", "103", "104", "105"));
+        List<String> lines = VennRenderer.layoutRegionLabel(region);
+        assertEquals(List.of("101,102,103,104,105"), lines);
+
+        Map<Integer, List<String>> shown = labels(3, Map.of(0b001, 5.0, 0b011, 2.0), Map.of(0b001, lines));
+        assertEquals(lines, shown.get(0b001));
+    }
+
+    @Test
+    void narrowSmallRegionRewrapsItsElements() {
+        List<String> lines = VennRenderer.layoutRegionLabel(new LinkedHashSet<>(List.of("alice", "bob", "carol")));
+
+        Map<Integer, List<String>> shown = labels(3, Map.of(0b011, 3.0), Map.of(0b011, lines));
+        assertEquals("alice,bob,carol", String.join("", shown.get(0b011)));
+    }
+
+    @Test
+    void largeRegionFallsBackToItsCount() {
+        Set<String> region = new LinkedHashSet<>();
+        for (int i = 0; i < 1_000; i++) {
+            region.add("element" + i);
+        }
+        Map<Integer, List<String>> shown = labels(3, Map.of(0b111, 1_000.0),
+                Map.of(0b111, VennRenderer.layoutRegionLabel(region)));
+        assertTrue(shown.get(0b111).size() <= 1);
+        assertFalse(shown.get(0b111).toString().contains("element"));
+    }
+
+    private static Map<Integer, List<String>> labels(int numSets, Map<Integer, Double> sizes, Map<Integer, List<String>> lines) {
+        VennRenderer.Diagram diagram = new VennRenderer.Diagram(numSets, sizes, lines, false);
+        BufferedImage image = new BufferedImage(WIDTH, HEIGHT, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = image.createGraphics();
+        try {
+            return new VennRenderer().vennLabels(g, WIDTH, HEIGHT, diagram, new AffineTransform());
+        } finally {
+            g.dispose();
+        }
+    }
+}